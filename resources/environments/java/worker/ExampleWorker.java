@@ -0,0 +1,345 @@
+import javax.tools.*;
+import java.io.*;
+import java.lang.reflect.InvocationTargetException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/// Long-lived worker which compiles and runs Java examples in memory, so each example doesn't need to pay for
+/// Gradle configuration, a compile, and a fresh JVM.
+///
+/// Launched in source-file mode with the client's runtime classpath (see `writeClasspath` in `build.gradle`).
+///
+/// Handles one request at a time over stdin/stdout:
+/// ```
+/// -> V {"KEY":"value"}          (optional; environment variables for the next request only)
+/// -> C /abs/path/Example.java   (compile only)
+/// -> R /abs/path/Example.java   (compile, then run main in a fresh classloader)
+/// <- O:<line>                   (a line printed to stdout)
+/// <- E:<line>                   (a line printed to stderr, or a compiler diagnostic)
+/// <- X:<exit code>              (end of response)
+/// <- Q:                         (the example called System.exit; the worker's own exit code is the example's)
+/// ```
+///
+/// Each example runs in its own thread group, and (like a plain `java Example`) the response is only sent once every
+/// non-daemon thread it started has finished.
+///
+/// Environment variables are put straight into the map backing `System.getenv()` for the duration of a request (hence
+/// the worker being launched with `--add-opens java.base/java.util=ALL-UNNAMED`). Processes the example starts don't
+/// see them, though.
+public class ExampleWorker {
+    private static final PrintStream protocol = new PrintStream(new FileOutputStream(FileDescriptor.out), true, StandardCharsets.UTF_8);
+
+    private static final PrintStream taggedOut = new PrintStream(new TaggedLines("O:"), false, StandardCharsets.UTF_8);
+    private static final PrintStream taggedErr = new PrintStream(new TaggedLines("E:"), false, StandardCharsets.UTF_8);
+
+    private static volatile boolean running = false;
+
+    public static void main(String[] args) throws IOException {
+        System.setOut(taggedOut);
+        System.setErr(taggedErr);
+
+        // an example calling System.exit takes the worker down with it; flush what it printed and say so
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            if (running) {
+                taggedOut.flush();
+                taggedErr.flush();
+
+                synchronized (protocol) {
+                    protocol.println("Q:");
+                }
+            }
+        }));
+
+        var compiler = ToolProvider.getSystemJavaCompiler();
+
+        if (compiler == null) {
+            throw new IllegalStateException("No system Java compiler available; the worker must be run with a JDK");
+        }
+
+        var stdFileManager = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8);
+        var stdin = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+
+        String line;
+        Map<String, String> env = Map.of();
+
+        while ((line = stdin.readLine()) != null) {
+            if (line.length() < 3) {
+                continue;
+            }
+
+            if (line.charAt(0) == 'V') {
+                env = parseEnv(line.substring(2));
+                continue;
+            }
+
+            running = true;
+            var exitCode = handle(compiler, stdFileManager, line.charAt(0) == 'R', Path.of(line.substring(2)), env);
+            running = false;
+            env = Map.of();
+
+            synchronized (protocol) {
+                protocol.println("X:" + exitCode);
+            }
+        }
+    }
+
+    private static int handle(JavaCompiler compiler, StandardJavaFileManager stdFileManager, boolean run, Path source, Map<String, String> env) {
+        Runnable restoreEnv = () -> {};
+
+        try {
+            restoreEnv = setEnv(env);
+
+            var classes = compile(compiler, stdFileManager, source);
+
+            if (classes == null) {
+                return 1;
+            }
+
+            if (!run) {
+                return 0;
+            }
+
+            var className = source.getFileName().toString().replaceFirst("\\.java$", "");
+            var loader = new MemoryClassLoader(classes, ExampleWorker.class.getClassLoader());
+            var main = loader.loadClass(className).getMethod("main", String[].class);
+
+            return runInOwnThreadGroup(className, loader, () -> main.invoke(null, (Object) new String[0]));
+        } catch (Throwable t) {
+            t.printStackTrace();
+            return 1;
+        } finally {
+            restoreEnv.run();
+
+            // examples may wrap System.out (e.g. to jsonify output)
+            System.out.flush();
+            System.err.flush();
+            taggedOut.flush();
+            taggedErr.flush();
+            System.setOut(taggedOut);
+            System.setErr(taggedErr);
+        }
+    }
+
+    /// Sets the given environment variables, returning how to put back what they replaced.
+    @SuppressWarnings("unchecked")
+    private static Runnable setEnv(Map<String, String> vars) throws ReflectiveOperationException {
+        if (vars.isEmpty()) {
+            return () -> {};
+        }
+
+        var field = Class.forName("java.util.Collections$UnmodifiableMap").getDeclaredField("m");
+        field.setAccessible(true);
+
+        var env = (Map<String, String>) field.get(System.getenv());
+        var previous = new HashMap<String, String>();
+
+        vars.forEach((key, value) -> previous.put(key, env.put(key, value)));
+
+        return () -> previous.forEach((key, value) -> {
+            if (value == null) {
+                env.remove(key);
+            } else {
+                env.put(key, value);
+            }
+        });
+    }
+
+    /// Parses a `V` line's flat object of strings, e.g. `{"KEY":"value","OTHER":"line\nbreak"}`.
+    private static Map<String, String> parseEnv(String json) {
+        var strings = new ArrayList<String>();
+        var current = new StringBuilder();
+        var inString = false;
+
+        for (var i = 0; i < json.length(); i++) {
+            var c = json.charAt(i);
+
+            if (!inString) {
+                if (c == '"') {
+                    inString = true;
+                    current.setLength(0);
+                }
+                continue;
+            }
+
+            if (c == '"') {
+                inString = false;
+                strings.add(current.toString());
+            } else if (c == '\\') {
+                var escaped = json.charAt(++i);
+
+                switch (escaped) {
+                    case 'n' -> current.append('\n');
+                    case 'r' -> current.append('\r');
+                    case 't' -> current.append('\t');
+                    case 'b' -> current.append('\b');
+                    case 'f' -> current.append('\f');
+                    case 'u' -> {
+                        current.append((char) Integer.parseInt(json.substring(i + 1, i + 5), 16));
+                        i += 4;
+                    }
+                    default -> current.append(escaped); // `"`, `\`, and `/`
+                }
+            } else {
+                current.append(c);
+            }
+        }
+
+        var env = new HashMap<String, String>();
+
+        for (var i = 0; i + 1 < strings.size(); i += 2) {
+            env.put(strings.get(i), strings.get(i + 1));
+        }
+
+        return env;
+    }
+
+    private interface MainMethod {
+        void invoke() throws Exception;
+    }
+
+    private static int runInOwnThreadGroup(String className, ClassLoader loader, MainMethod main) throws InterruptedException {
+        var group = new ThreadGroup("example-" + className);
+        var exitCode = new int[] { 0 };
+
+        var mainThread = new Thread(group, () -> {
+            try {
+                main.invoke();
+            } catch (InvocationTargetException e) {
+                e.getCause().printStackTrace();
+                exitCode[0] = 1;
+            } catch (Throwable t) {
+                t.printStackTrace();
+                exitCode[0] = 1;
+            }
+        }, "main");
+
+        mainThread.setContextClassLoader(loader);
+        mainThread.start();
+        mainThread.join();
+
+        // the JVM would only exit once the example's non-daemon threads are done, so the worker waits for them too
+        while (true) {
+            var threads = new Thread[group.activeCount() + 1];
+            var count = group.enumerate(threads, true);
+
+            var pending = Arrays.stream(threads, 0, count)
+                .filter(t -> t.isAlive() && !t.isDaemon())
+                .toList();
+
+            if (pending.isEmpty()) {
+                return exitCode[0];
+            }
+
+            for (var thread : pending) {
+                thread.join();
+            }
+        }
+    }
+
+    private static Map<String, byte[]> compile(JavaCompiler compiler, StandardJavaFileManager stdFileManager, Path source) throws IOException {
+        var outputs = new HashMap<String, ByteArrayOutputStream>();
+
+        var fileManager = new ForwardingJavaFileManager<JavaFileManager>(stdFileManager) {
+            @Override
+            public JavaFileObject getJavaFileForOutput(Location location, String className, JavaFileObject.Kind kind, FileObject sibling) {
+                return new SimpleJavaFileObject(URI.create("mem:///" + className.replace('.', '/') + kind.extension), kind) {
+                    @Override
+                    public OutputStream openOutputStream() {
+                        return outputs.computeIfAbsent(className, k -> new ByteArrayOutputStream());
+                    }
+                };
+            }
+        };
+
+        // read the source ourselves; the standard file manager may cache contents of a path which is rewritten between runs
+        var content = Files.readString(source);
+
+        var unit = new SimpleJavaFileObject(source.toUri(), JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return content;
+            }
+        };
+
+        var diagnostics = new DiagnosticCollector<JavaFileObject>();
+        var options = List.of("-classpath", System.getProperty("java.class.path"), "-proc:none", "-g");
+
+        var ok = compiler.getTask(null, fileManager, diagnostics, options, null, List.of(unit)).call();
+
+        for (var diagnostic : diagnostics.getDiagnostics()) {
+            if (!ok || diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+                System.err.println(diagnostic);
+            }
+        }
+
+        if (!ok) {
+            return null;
+        }
+
+        var classes = new HashMap<String, byte[]>();
+        outputs.forEach((name, bytes) -> classes.put(name, bytes.toByteArray()));
+        return classes;
+    }
+
+    private static class MemoryClassLoader extends ClassLoader {
+        private final Map<String, byte[]> classes;
+
+        MemoryClassLoader(Map<String, byte[]> classes, ClassLoader parent) {
+            super(parent);
+            this.classes = classes;
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            var bytes = classes.get(name);
+
+            if (bytes == null) {
+                return super.findClass(name);
+            }
+
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+
+    /// Prefixes every line written to it before forwarding it to the real stdout.
+    private static class TaggedLines extends OutputStream {
+        private final String tag;
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+        TaggedLines(String tag) {
+            this.tag = tag;
+        }
+
+        @Override
+        public synchronized void write(int b) {
+            if (b == '\n') {
+                flushLine();
+            } else {
+                buffer.write(b);
+            }
+        }
+
+        @Override
+        public synchronized void flush() {
+            if (buffer.size() > 0) {
+                flushLine();
+            }
+        }
+
+        private void flushLine() {
+            var line = buffer.toString(StandardCharsets.UTF_8);
+            buffer.reset();
+
+            synchronized (protocol) {
+                protocol.println(tag + (line.endsWith("\r") ? line.substring(0, line.length() - 1) : line));
+            }
+        }
+    }
+}
@@ -0,0 +1,176 @@
+"""
+Long-lived fork server which runs Python examples, so each example doesn't need to pay for a fresh interpreter and
+for importing astrapy.
+
+astrapy is imported, and `DataAPIClient` patched to default to the right environment, once up front. Each example then
+runs via `runpy` in a forked child, so crashes, `sys.exit`, and any state the example leaves behind are isolated to it.
+
+The child's fds 1 and 2 are pipes read by the child itself, so that everything the example prints (including from
+subprocesses, C extensions, or `os.write`) is tagged before reaching the protocol stream.
+
+Handles one request at a time over stdin/stdout, using the same protocol as the Java worker:
+-> V {"KEY":"value"}   (optional; environment variables for the next example only)
+-> R /abs/path/example.py
+<- O:<line>          (a line printed to stdout)
+<- E:<line>          (a line printed to stderr)
+<- X:<exit code>     (end of response)
+
+Usage: python example_worker.py <environment>
+"""
+import codecs
+import io
+import json
+import os
+import runpy
+import sys
+import threading
+import traceback
+
+import astrapy as _astrapy_module
+import astrapy.utils.unset as _astrapy_unset_module
+from astrapy.data.utils.table_converters import preprocess_table_payload, FullSerdesOptions  # noqa: F401 (warm-up for jsonified examples)
+
+_environment = sys.argv[1]
+_original_init = _astrapy_module.DataAPIClient.__init__
+
+
+def _patched_init(self, *args, **kwargs):
+    if "environment" not in kwargs or isinstance(kwargs["environment"], _astrapy_unset_module.UnsetType):
+        kwargs["environment"] = _environment
+    return _original_init(self, *args, **kwargs)
+
+
+_astrapy_module.DataAPIClient.__init__ = _patched_init
+
+_protocol = os.fdopen(os.dup(1), "w", buffering=1)
+_protocol_lock = threading.Lock()
+
+
+class _TaggedLines(io.TextIOBase):
+    def __init__(self, tag):
+        self._tag = tag
+        self._pending = ""
+
+    def writable(self):
+        return True
+
+    def write(self, s):
+        self._pending += s
+        *lines, self._pending = self._pending.split("\n")
+        for line in lines:
+            self._emit(line)
+        return len(s)
+
+    def finish(self):
+        if self._pending:
+            self._emit(self._pending)
+            self._pending = ""
+
+    def _emit(self, line):
+        with _protocol_lock:
+            _protocol.write(self._tag + line.removesuffix("\r") + "\n")
+
+
+def _pump(read_fd, tagged):
+    decoder = codecs.getincrementaldecoder("utf-8")(errors="replace")
+
+    with os.fdopen(read_fd, "rb", buffering=0) as stream:
+        while chunk := stream.read(65536):
+            tagged.write(decoder.decode(chunk))
+
+    tagged.write(decoder.decode(b"", final=True))
+    tagged.finish()
+
+
+# points `fd` at a pipe whose lines are tagged and forwarded to the protocol stream
+def _capture(fd, tag):
+    read_fd, write_fd = os.pipe()
+    os.dup2(write_fd, fd)
+    os.close(write_fd)
+
+    pump = threading.Thread(target=_pump, args=(read_fd, _TaggedLines(tag)))
+    pump.start()
+    return pump
+
+
+def _exit_code(e):
+    if e.code is None:
+        return 0
+    if isinstance(e.code, int):
+        return e.code
+    print(e.code, file=sys.stderr)
+    return 1
+
+
+def _run_example(path, env):
+    os.environ.update(env)
+
+    devnull = os.open(os.devnull, os.O_RDWR)
+    os.dup2(devnull, 0)
+
+    pumps = [_capture(1, "O:"), _capture(2, "E:")]
+
+    sys.stdin = open(os.devnull)
+    out = sys.stdout = os.fdopen(1, "w", buffering=1, errors="backslashreplace")
+    err = sys.stderr = os.fdopen(2, "w", buffering=1, errors="backslashreplace")
+    sys.argv = [path]
+    sys.path.insert(0, os.path.dirname(path))
+
+    try:
+        runpy.run_path(path, run_name="__main__")
+        code = 0
+    except SystemExit as e:
+        code = _exit_code(e)
+    except BaseException as e:
+        # hides the worker's own frames, so the traceback looks like the one `python example.py` would print
+        tb = e.__traceback__
+        while tb is not None and tb.tb_frame.f_code.co_filename != path:
+            tb = tb.tb_next
+        traceback.print_exception(type(e), e, tb or e.__traceback__)
+        code = 1
+
+    # closing the pipes' last write ends (unless a subprocess still holds them, as with `python example.py`) lets the pumps finish
+    for stream in (out, err):
+        try:
+            stream.close()
+        except OSError:
+            pass
+
+    for pump in pumps:
+        pump.join()
+
+    with _protocol_lock:
+        _protocol.flush()
+
+    os._exit(code)
+
+
+def main():
+    env = {}
+
+    for line in sys.stdin:
+        line = line.rstrip("\n")
+
+        if len(line) < 3:
+            continue
+
+        if line[0] == "V":
+            env = json.loads(line[2:])
+            continue
+
+        sys.stdout.flush()
+        sys.stderr.flush()
+
+        pid = os.fork()
+
+        if pid == 0:
+            _run_example(line[2:], env)
+
+        env = {}
+
+        _, status = os.waitpid(pid, 0)
+        _protocol.write("X:%d\n" % os.waitstatus_to_exitcode(status))
+
+
+if __name__ == "__main__":
+    main()
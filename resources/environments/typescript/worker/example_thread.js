@@ -0,0 +1,45 @@
+// A single example's worker thread (see `example_worker.js`), which imports astra-db-ts while on standby, then runs
+// whichever (already transpiled) example it's handed.
+const Module = require('module');
+const path = require('path');
+const { parentPort } = require('worker_threads');
+
+require('@datastax/astra-db-ts');
+
+// the equivalent of the console.log override prepended to examples outside of the worker (see TypeScriptDriver)
+const jsonifyConsoleLog = () => {
+  const { stringify } = require('json-bigint');
+  const log = console.log;
+
+  console.log = (json) => {
+    if (typeof json !== 'object' || json === null) {
+      log(stringify(json));
+      return;
+    }
+
+    for (const [key, value] of Object.entries(json)) {
+      if (value instanceof Map) {
+        json[key] = Object.fromEntries(value);
+      }
+      if (value instanceof Set) {
+        json[key] = Array.from(value);
+      }
+    }
+    log(stringify(json));
+  };
+};
+
+// each thread has its own copy of process.env, so this only affects this example
+parentPort.once('message', ({ file, code, jsonify, env }) => {
+  parentPort.unref();
+  Object.assign(process.env, env);
+
+  if (jsonify) {
+    jsonifyConsoleLog();
+  }
+
+  const example = new Module(file, null);
+  example.filename = file;
+  example.paths = Module._nodeModulePaths(path.dirname(file));
+  example._compile(code, file);
+});
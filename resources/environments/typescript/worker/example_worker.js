@@ -0,0 +1,94 @@
+// Long-lived worker which runs TypeScript examples, so each example doesn't need to pay for `npx`, `tsx`'s startup, and
+// importing astra-db-ts.
+//
+// Each example is transpiled here, then run in its own worker thread (and so its own module graph), with its console
+// output captured. A warm thread, with astra-db-ts already imported, is always kept on standby for the next example.
+//
+// Handles one request at a time over stdin/stdout, using the same protocol as the Java worker:
+// -> V {"KEY":"value"}        (optional; environment variables for the next example only)
+// -> R /abs/path/example.ts   (run)
+// -> J /abs/path/example.ts   (run, printing console.log'd values as JSON)
+// <- O:<line>                 (a line printed to stdout)
+// <- E:<line>                 (a line printed to stderr)
+// <- X:<exit code>            (end of response)
+const fs = require('fs');
+const path = require('path');
+const readline = require('readline');
+const { Worker } = require('worker_threads');
+const ts = require('typescript');
+
+const spawnThread = () => {
+  return new Worker(path.join(__dirname, 'example_thread.js'), { stdout: true, stderr: true });
+};
+
+const pipeLines = (stream, tag) => {
+  return new Promise((resolve) => {
+    readline.createInterface({ input: stream }).on('line', (line) => {
+      process.stdout.write(`${tag}${line}\n`);
+    }).on('close', resolve);
+  });
+};
+
+const run = async (file, jsonify, env) => {
+  const code = ts.transpileModule(fs.readFileSync(file, 'utf8'), {
+    fileName: file,
+    compilerOptions: {
+      module: ts.ModuleKind.CommonJS,
+      target: ts.ScriptTarget.ES2020,
+      esModuleInterop: true,
+    },
+  }).outputText;
+
+  const thread = standby;
+  standby = spawnThread();
+
+  const output = Promise.all([pipeLines(thread.stdout, 'O:'), pipeLines(thread.stderr, 'E:')]);
+
+  const exitCode = await new Promise((resolve) => {
+    let failed = false;
+
+    thread.on('error', (e) => {
+      failed = true;
+      process.stdout.write(`E:${String(e?.stack ?? e).replaceAll('\n', '\nE:')}\n`);
+    });
+
+    thread.on('exit', (code) => resolve((failed && code === 0) ? 1 : code));
+    thread.postMessage({ file, code, jsonify, env });
+  });
+
+  await output;
+  return exitCode;
+};
+
+let standby = spawnThread();
+let queue = Promise.resolve();
+let env = {};
+
+readline.createInterface({ input: process.stdin }).on('line', (line) => {
+  if (line.length < 3) {
+    return;
+  }
+
+  if (line[0] === 'V') {
+    env = JSON.parse(line.slice(2));
+    return;
+  }
+
+  const requestEnv = env;
+  env = {};
+
+  queue = queue.then(async () => {
+    let exitCode;
+
+    try {
+      exitCode = await run(line.slice(2), line[0] === 'J', requestEnv);
+    } catch (e) {
+      process.stdout.write(`E:${String(e?.stack ?? e).replaceAll('\n', '\nE:')}\n`);
+      exitCode = 1;
+    }
+
+    process.stdout.write(`X:${exitCode}\n`);
+  });
+}).on('close', () => {
+  queue.then(() => standby.terminate());
+});
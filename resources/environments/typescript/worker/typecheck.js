@@ -0,0 +1,76 @@
+// Long-lived type-checking service, so that compile-only TypeScript examples don't each pay for a cold `tsc` which
+// re-parses the standard library's and astra-db-ts's declaration files.
+//
+// Handles one request at a time over stdin/stdout, using the same protocol as the Java worker:
+// -> C /abs/path/example.ts
+// <- O:<line>          (a diagnostic line, formatted like `tsc`'s)
+// <- X:<exit code>     (end of response)
+const path = require('path');
+const readline = require('readline');
+const ts = require('typescript');
+
+const config = ts.getParsedCommandLineOfConfigFile(path.resolve('tsconfig.json'), {}, {
+  ...ts.sys,
+  onUnRecoverableConfigFileDiagnostic: (diagnostic) => {
+    throw new Error(ts.flattenDiagnosticMessageText(diagnostic.messageText, '\n'));
+  },
+});
+
+const options = { ...config.options, noEmit: true };
+const host = ts.createCompilerHost(options);
+
+// declaration files don't change during a run, so they're only parsed once and then shared by every program
+const declarationFiles = new Map();
+const getSourceFile = host.getSourceFile;
+
+host.getSourceFile = (fileName, ...rest) => {
+  if (!fileName.endsWith('.d.ts')) {
+    return getSourceFile(fileName, ...rest);
+  }
+
+  if (!declarationFiles.has(fileName)) {
+    declarationFiles.set(fileName, getSourceFile(fileName, ...rest));
+  }
+
+  return declarationFiles.get(fileName);
+};
+
+const formatHost = {
+  getCanonicalFileName: (fileName) => fileName,
+  getCurrentDirectory: () => process.cwd(),
+  getNewLine: () => '\n',
+};
+
+let oldProgram;
+
+const check = (file) => {
+  const program = ts.createProgram({ rootNames: [file], options, host, oldProgram });
+  oldProgram = program;
+
+  const diagnostics = ts.getPreEmitDiagnostics(program);
+
+  for (const line of ts.formatDiagnostics(diagnostics, formatHost).split('\n')) {
+    if (line) {
+      process.stdout.write(`O:${line}\n`);
+    }
+  }
+
+  return diagnostics.some((d) => d.category === ts.DiagnosticCategory.Error) ? 1 : 0;
+};
+
+readline.createInterface({ input: process.stdin }).on('line', (line) => {
+  if (line.length < 3) {
+    return;
+  }
+
+  let exitCode;
+
+  try {
+    exitCode = check(line.slice(2));
+  } catch (e) {
+    process.stdout.write(`E:${String(e?.stack ?? e).replaceAll('\n', '\nE:')}\n`);
+    exitCode = 1;
+  }
+
+  process.stdout.write(`X:${exitCode}\n`);
+});
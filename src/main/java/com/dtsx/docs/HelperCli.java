@@ -2,7 +2,9 @@ package com.dtsx.docs;
 
 import com.dtsx.docs.commands.completions.CompgenCmd;
 import com.dtsx.docs.commands.duplicates.DuplicatesCmd;
+import com.dtsx.docs.commands.fixtures.FixturesCmd;
 import com.dtsx.docs.commands.logs.LogsCmd;
+import com.dtsx.docs.commands.merge.MergeResultsCmd;
 import com.dtsx.docs.commands.review.ReviewCmd;
 import com.dtsx.docs.commands.run.RunCmd;
 import com.dtsx.docs.commands.test.TestCmd;
@@ -30,6 +32,8 @@ import static com.dtsx.docs.lib.ColorUtils.ACCENT_COLOR;
         CompgenCmd.class,
         LogsCmd.class,
         DuplicatesCmd.class,
+        MergeResultsCmd.class,
+        FixturesCmd.class,
     }
 )
 public class HelperCli {
@@ -0,0 +1,23 @@
+package com.dtsx.docs.commands.fixtures;
+
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Spec;
+
+@Command(
+    name = "fixtures",
+    description = "Manage base fixtures kept between test runs (see `test --keep-fixtures`)",
+    mixinStandardHelpOptions = true,
+    subcommands = {
+        FixturesGcCmd.class,
+    }
+)
+public class FixturesCmd implements Runnable {
+    @Spec
+    protected CommandSpec spec;
+
+    @Override
+    public final void run() {
+        spec.commandLine().usage(System.out);
+    }
+}
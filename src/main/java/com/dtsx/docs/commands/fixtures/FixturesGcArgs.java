@@ -0,0 +1,11 @@
+package com.dtsx.docs.commands.fixtures;
+
+import com.dtsx.docs.config.args.BaseScriptRunnerArgs;
+import picocli.CommandLine.Model.CommandSpec;
+
+public class FixturesGcArgs extends BaseScriptRunnerArgs<FixturesGcCtx> {
+    @Override
+    public FixturesGcCtx toCtx(CommandSpec spec) {
+        return new FixturesGcCtx(this, spec);
+    }
+}
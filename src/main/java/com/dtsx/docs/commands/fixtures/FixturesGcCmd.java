@@ -0,0 +1,38 @@
+package com.dtsx.docs.commands.fixtures;
+
+import com.dtsx.docs.commands.BaseCmd;
+import com.dtsx.docs.core.planner.fixtures.JSFixture;
+import com.dtsx.docs.core.planner.fixtures.KeptFixtures;
+import com.dtsx.docs.lib.CliLogger;
+import com.dtsx.docs.lib.ExternalPrograms;
+import lombok.Getter;
+import lombok.val;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Mixin;
+
+@Command(
+    name = "gc",
+    description = "Tear down every base fixture kept by `test --keep-fixtures` in the current database"
+)
+public class FixturesGcCmd extends BaseCmd<FixturesGcCtx> {
+    @Mixin @Getter
+    private FixturesGcArgs $args;
+
+    @Override
+    protected int run() {
+        val keptFixtures = KeptFixtures.load(ctx);
+
+        if (keptFixtures.size() == 0) {
+            CliLogger.println(false, "@!-!@ No kept fixtures to tear down");
+            return 0;
+        }
+
+        JSFixture.installDependencies(ctx);
+
+        try {
+            return (keptFixtures.collectGarbage(ExternalPrograms.tsx(ctx))) ? 0 : 1;
+        } finally {
+            JSFixture.stopHosts();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.dtsx.docs.commands.fixtures;
+
+import com.dtsx.docs.config.ctx.BaseCtx;
+import com.dtsx.docs.config.ctx.BaseScriptRunnerCtx;
+import com.dtsx.docs.lib.ExternalPrograms;
+import com.dtsx.docs.lib.ExternalPrograms.ExternalProgram;
+import org.jetbrains.annotations.MustBeInvokedByOverriders;
+import picocli.CommandLine.Model.CommandSpec;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Function;
+
+public class FixturesGcCtx extends BaseScriptRunnerCtx {
+    public FixturesGcCtx(FixturesGcArgs args, CommandSpec spec) {
+        super(args, spec);
+    }
+
+    @Override
+    @MustBeInvokedByOverriders
+    protected Set<Function<BaseCtx, ExternalProgram>> requiredPrograms() {
+        return new HashSet<>(super.requiredPrograms()) {{
+            add(ExternalPrograms::npm);
+        }};
+    }
+}
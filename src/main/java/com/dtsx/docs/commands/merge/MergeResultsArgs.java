@@ -0,0 +1,24 @@
+package com.dtsx.docs.commands.merge;
+
+import com.dtsx.docs.config.args.BaseArgs;
+import lombok.ToString;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Parameters;
+
+import java.nio.file.Path;
+import java.util.List;
+
+@ToString
+public class MergeResultsArgs extends BaseArgs<MergeResultsCtx> {
+    @Parameters(
+        description = "Results files written by `test --results-file` (or `test --shard`).",
+        paramLabel = "FILE",
+        arity = "1..*"
+    )
+    public List<Path> $resultsFiles;
+
+    @Override
+    public MergeResultsCtx toCtx(CommandSpec spec) {
+        return new MergeResultsCtx(this, spec);
+    }
+}
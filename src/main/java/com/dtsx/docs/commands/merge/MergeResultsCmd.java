@@ -0,0 +1,105 @@
+package com.dtsx.docs.commands.merge;
+
+import com.dtsx.docs.commands.BaseCmd;
+import com.dtsx.docs.core.runner.tests.results.ShardResults;
+import com.dtsx.docs.lib.CliLogger;
+import lombok.Getter;
+import lombok.val;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Mixin;
+
+import java.util.*;
+
+@Command(
+    name = "merge-results",
+    description = "Combine the results files of several (sharded) test runs into a single summary"
+)
+public class MergeResultsCmd extends BaseCmd<MergeResultsCtx> {
+    @Mixin
+    @Getter
+    private MergeResultsArgs $args;
+
+    @Override
+    protected int run() {
+        val failures = new ArrayList<ShardResults.Entry>();
+
+        // which results file planned each test, to check that the shards neither overlap nor leave any test out
+        val plannedBy = new HashMap<String, String>();
+        val overlapping = new TreeSet<String>();
+        val planHashes = new HashSet<String>();
+
+        int planned = 0, passed = 0, failed = 0, bailed = 0, unsharded = 0;
+
+        for (val file : ctx.resultsFiles()) {
+            val results = ShardResults.read(file);
+            val label = (results.shard() != null) ? "shard " + results.shard() : file.getFileName().toString();
+
+            for (val plannedFile : results.plannedFiles()) {
+                if (plannedBy.putIfAbsent(plannedFile, label) != null) {
+                    overlapping.add(plannedFile);
+                }
+            }
+
+            planHashes.add(results.unshardedPlanHash());
+            unsharded = results.unshardedTests();
+
+            planned += results.plannedTests();
+            passed += results.passedTests();
+            failed += results.failedTests();
+            bailed += results.bailedTests();
+
+            results.results().stream().filter(e -> !e.passed()).forEach(failures::add);
+
+            CliLogger.println(false, "@!-!@ Read " + results.results().size() + " results for @!" + label + "!@");
+        }
+
+        if (!failures.isEmpty()) {
+            CliLogger.println(false, "\n@|bold Failed tests:|@");
+
+            for (val failure : failures) {
+                CliLogger.println(false, "@|red ✗|@ " + failure.file() + " @|faint (" + failure.baseFixture() + ", " + failure.outcome() + ")|@");
+            }
+        }
+
+        CliLogger.println(false, "\n@|bold Test Summary:|@");
+        CliLogger.println(false, "@!-!@ Total tests: " + planned);
+        CliLogger.println(false, "@!-!@ Passed tests: " + passed);
+        CliLogger.println(false, "@!-!@ Failed tests: " + failed);
+
+        if (bailed > 0) {
+            CliLogger.println(false, "@!-!@ Bailed tests: " + bailed);
+        }
+
+        val problems = findCoverageProblems(plannedBy, overlapping, planHashes, unsharded);
+
+        if (!problems.isEmpty()) {
+            CliLogger.println(false, "\n@|bold Incomplete results:|@");
+
+            for (val problem : problems) {
+                CliLogger.println(false, "@|red ✗|@ " + problem);
+            }
+        }
+
+        return (failed == 0 && bailed == 0 && problems.isEmpty()) ? 0 : 1;
+    }
+
+    private List<String> findCoverageProblems(Map<String, String> plannedBy, SortedSet<String> overlapping, Set<String> planHashes, int unsharded) {
+        val problems = new ArrayList<String>();
+
+        if (planHashes.size() > 1) {
+            problems.add("The results files come from different test plans (e.g. different revisions, filters, or --since)");
+        } else if (!ShardResults.planHash(new TreeSet<>(plannedBy.keySet())).equals(planHashes.iterator().next())) {
+            problems.add("The results files only cover %d of the plan's %d tests; is a shard's results file missing?".formatted(plannedBy.size(), unsharded));
+        }
+
+        if (!overlapping.isEmpty()) {
+            problems.add("%d test(s) were planned by more than one results file (e.g. @!%s!@, also in %s); was a results file given twice, or were the shards given different --durations-file's?".formatted(
+                overlapping.size(),
+                overlapping.first(),
+                plannedBy.get(overlapping.first())
+            ));
+        }
+
+        return problems;
+    }
+}
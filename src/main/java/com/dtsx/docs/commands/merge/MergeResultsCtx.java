@@ -0,0 +1,27 @@
+package com.dtsx.docs.commands.merge;
+
+import com.dtsx.docs.config.ctx.BaseCtx;
+import lombok.Getter;
+import lombok.val;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.ParameterException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+@Getter
+public class MergeResultsCtx extends BaseCtx {
+    private final List<Path> resultsFiles;
+
+    public MergeResultsCtx(MergeResultsArgs args, CommandSpec spec) {
+        super(args, spec);
+        this.resultsFiles = args.$resultsFiles;
+
+        for (val file : resultsFiles) {
+            if (!Files.isRegularFile(file)) {
+                throw new ParameterException(cmd, "Results file '" + file + "' does not exist");
+            }
+        }
+    }
+}
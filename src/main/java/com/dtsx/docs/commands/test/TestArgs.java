@@ -9,7 +9,9 @@ import picocli.CommandLine.Model.CommandSpec;
 import picocli.CommandLine.Option;
 import picocli.CommandLine.Parameters;
 
+import java.nio.file.Path;
 import java.util.List;
+import java.util.Optional;
 
 @ToString
 public class TestArgs extends BaseScriptRunnerArgs<TestCtx> {
@@ -76,6 +78,85 @@ public class TestArgs extends BaseScriptRunnerArgs<TestCtx> {
     )
     public int $maxFixtureInstances;
 
+    @Option(
+        names = { "-P", "--pool-parallelism" },
+        description = "Maximum number of base fixture pools to run concurrently. Results are still reported in plan order.",
+        defaultValue = "${POOL_PARALLELISM:-1}",
+        paramLabel = "N"
+    )
+    public int $poolParallelism;
+
+    @Option(
+        names = { "-R", "--env-replicas" },
+        description = "Number of execution environments to set up per language, allowing several examples of the same language to run at once.",
+        defaultValue = "${ENV_REPLICAS:-1}",
+        paramLabel = "N"
+    )
+    public int $envReplicas;
+
+    @Option(
+        names = { "--cache" },
+        description = "Whether to skip snapshot tests whose inputs (example, meta.yml, fixtures, approved snapshot, installed client version, database) are unchanged since they last passed.",
+        defaultValue = "${VERIFICATION_CACHE:-false}",
+        fallbackValue = "true",
+        negatable = true
+    )
+    public boolean $cache;
+
+    @Option(
+        names = { "--since" },
+        description = "Only run test roots affected by changes since the given git revision (e.g. 'origin/main'), including roots depending on changed fixtures or _base files.",
+        defaultValue = "${SINCE}",
+        paramLabel = "REF"
+    )
+    public Optional<String> $since;
+
+    @Option(
+        names = { "--schema-convergence-timeout" },
+        description = "Maximum time to wait for table, index, and type definitions to stop changing before snapshotting them.",
+        defaultValue = "${SCHEMA_CONVERGENCE_TIMEOUT:-2500}",
+        paramLabel = "MS"
+    )
+    public int $schemaConvergenceTimeout;
+
+    @Option(
+        names = { "--shard" },
+        description = "Only run the given shard of the test plan (e.g. '2/3'), for splitting a run across machines. Shards are balanced by file count, or using --durations-file.",
+        defaultValue = "${SHARD}",
+        paramLabel = "I/N"
+    )
+    public Optional<String> $shard;
+
+    @Option(
+        names = { "--durations-file" },
+        description = "A duration history (e.g. '.docs_tests_temp/durations.json' from a previous full run) to balance --shard by. Every shard must be given the same one.",
+        defaultValue = "${DURATIONS_FILE}",
+        paramLabel = "FILE"
+    )
+    public Optional<Path> $durationsFile;
+
+    @Option(
+        names = { "--results-file" },
+        description = "Where to write the run's results as JSON, to be combined with `merge-results`. Defaults to '.docs_tests_temp/results/shard-<i>-of-<n>.json' when using --shard.",
+        defaultValue = "${RESULTS_FILE}",
+        paramLabel = "FILE"
+    )
+    public Optional<Path> $resultsFile;
+
+    @Option(
+        names = { "--batch-compile" },
+        description = "Whether to compile all compile-only examples of a language with a single compiler invocation, instead of one at a time.",
+        defaultValue = "${BATCH_COMPILE:-false}"
+    )
+    public boolean $batchCompile;
+
+    @Option(
+        names = { "--keep-fixtures" },
+        description = "Whether to keep base fixtures around after the run, and reuse them in later runs if their fixture files haven't changed, instead of calling Setup/Teardown every run. Clean them up with `fixtures gc`.",
+        defaultValue = "${KEEP_FIXTURES:-false}"
+    )
+    public boolean $keepFixtures;
+
     @Override
     public TestCtx toCtx(CommandSpec spec) {
         return new TestCtx(this, spec);
@@ -3,10 +3,12 @@ package com.dtsx.docs.commands.test;
 import com.dtsx.docs.config.ArgUtils;
 import com.dtsx.docs.config.ctx.BaseCtx;
 import com.dtsx.docs.config.ctx.BaseScriptRunnerCtx;
+import com.dtsx.docs.core.planner.TestPlan.Shard;
 import com.dtsx.docs.lib.ExternalPrograms;
 import com.dtsx.docs.lib.ExternalPrograms.ExternalProgram;
 import com.dtsx.docs.core.runner.drivers.ClientDriver;
 import com.dtsx.docs.core.runner.drivers.ClientLanguage;
+import com.dtsx.docs.core.runner.tests.DurationHistory;
 import com.dtsx.docs.core.runner.tests.VerifyMode;
 import com.dtsx.docs.core.runner.tests.reporter.TestReporter;
 import lombok.Getter;
@@ -16,6 +18,7 @@ import picocli.CommandLine;
 import picocli.CommandLine.Model.CommandSpec;
 import picocli.CommandLine.ParameterException;
 
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
 import java.util.function.Function;
@@ -42,6 +45,17 @@ public class TestCtx extends BaseScriptRunnerCtx {
     private final VerifyMode verifyMode;
     private final Predicate<Path> filter;
     private final int maxFixtureInstances;
+    private final int poolParallelism;
+    private final int envReplicas;
+    private final boolean verificationCache;
+    private final Optional<String> since;
+    private final int schemaConvergenceTimeout;
+    private final Optional<Shard> shard;
+    private final Optional<DurationHistory> shardDurations;
+    private final Optional<Path> resultsFile;
+    private final boolean batchCompile;
+    private final boolean keepFixtures;
+    private final DurationHistory durationHistory;
 
     public List<ClientLanguage> languages() {
         return new ArrayList<>(drivers.keySet());
@@ -54,6 +68,17 @@ public class TestCtx extends BaseScriptRunnerCtx {
         this.verifyMode = resolveVerifyMode(args);
         this.filter = mkFilter(args);
         this.maxFixtureInstances = args.$maxFixtureInstances;
+        this.poolParallelism = resolvePoolParallelism(args);
+        this.envReplicas = resolveEnvReplicas(args);
+        this.verificationCache = args.$cache;
+        this.since = args.$since.filter(s -> !s.isBlank());
+        this.schemaConvergenceTimeout = resolveSchemaConvergenceTimeout(args);
+        this.shard = resolveShard(args);
+        this.shardDurations = resolveShardDurations(args);
+        this.resultsFile = resolveResultsFile(args);
+        this.batchCompile = args.$batchCompile;
+        this.keepFixtures = args.$keepFixtures;
+        this.durationHistory = DurationHistory.load(this);
     }
 
     @Override
@@ -62,6 +87,10 @@ public class TestCtx extends BaseScriptRunnerCtx {
         return new HashSet<>(super.requiredPrograms()) {{
             add(ExternalPrograms::npm);
 
+            if (since.isPresent()) {
+                add(ExternalPrograms::git);
+            }
+
             for (val driver : drivers.values()) {
                 addAll(driver.requiredPrograms());
             }
@@ -104,6 +133,60 @@ public class TestCtx extends BaseScriptRunnerCtx {
             : args.$verifyMode;
     }
 
+    private int resolvePoolParallelism(TestArgs args) {
+        if (args.$poolParallelism < 1) {
+            throw new ParameterException(cmd, "Pool parallelism must be at least 1 (got " + args.$poolParallelism + ")");
+        }
+        return args.$poolParallelism;
+    }
+
+    private int resolveEnvReplicas(TestArgs args) {
+        if (args.$envReplicas < 1) {
+            throw new ParameterException(cmd, "Execution environment replicas must be at least 1 (got " + args.$envReplicas + ")");
+        }
+        return args.$envReplicas;
+    }
+
+    private int resolveSchemaConvergenceTimeout(TestArgs args) {
+        if (args.$schemaConvergenceTimeout < 0) {
+            throw new ParameterException(cmd, "Schema convergence timeout must not be negative (got " + args.$schemaConvergenceTimeout + ")");
+        }
+        return args.$schemaConvergenceTimeout;
+    }
+
+    private Optional<DurationHistory> resolveShardDurations(TestArgs args) {
+        return args.$durationsFile.map((file) -> {
+            if (!Files.isRegularFile(file)) {
+                throw new ParameterException(cmd, "Durations file '" + file + "' does not exist");
+            }
+            return DurationHistory.load(file);
+        });
+    }
+
+    private Optional<Shard> resolveShard(TestArgs args) {
+        return args.$shard.filter(s -> !s.isBlank()).map((str) -> {
+            val parts = str.trim().split("/");
+
+            try {
+                if (parts.length == 2) {
+                    val shard = new Shard(Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+
+                    if (shard.count() >= 1 && shard.index() >= 1 && shard.index() <= shard.count()) {
+                        return shard;
+                    }
+                }
+            } catch (NumberFormatException _) {}
+
+            throw new ParameterException(cmd, "Invalid shard '" + str + "'. Expected 'I/N' where 1 <= I <= N (e.g. '2/3')");
+        });
+    }
+
+    private Optional<Path> resolveResultsFile(TestArgs args) {
+        return args.$resultsFile.or(() -> shard.map((s) -> {
+            return tmpFolder().resolve("results").resolve("shard-" + s.index() + "-of-" + s.count() + ".json");
+        }));
+    }
+
     private Predicate<Path> mkFilter(TestArgs args) {
         val includePredicate = mkFilterPredicates(args.$filters, args.$fand)
             .orElse(_ -> true);
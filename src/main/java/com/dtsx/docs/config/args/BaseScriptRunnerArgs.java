@@ -49,4 +49,39 @@ public abstract class BaseScriptRunnerArgs<Ctx extends BaseScriptRunnerCtx> exte
         defaultValue = "${BAIL:-false}"
     )
     public boolean $bail;
+
+    @Option(
+        names = { "--java-worker" },
+        description = "Whether to compile and run Java examples in memory in a warm worker JVM instead of via Gradle. Examples see placeholders, but not env vars.",
+        defaultValue = "${JAVA_WORKER:-false}"
+    )
+    public boolean $javaWorker;
+
+    @Option(
+        names = { "--python-worker" },
+        description = "Whether to run Python examples in a warm fork server with astrapy pre-imported, instead of a fresh interpreter each. Examples see placeholders, but not env vars.",
+        defaultValue = "${PYTHON_WORKER:-false}"
+    )
+    public boolean $pythonWorker;
+
+    @Option(
+        names = { "--ts-worker" },
+        description = "Whether to run TypeScript examples in a warm Node worker, each in its own worker thread, instead of a fresh `tsx` process each. Examples see placeholders, but not env vars.",
+        defaultValue = "${TS_WORKER:-false}"
+    )
+    public boolean $tsWorker;
+
+    @Option(
+        names = { "--ts-typecheck-service" },
+        description = "Whether to type-check TypeScript examples in a warm per-environment service that keeps the compiler's state between examples, instead of `npm run typecheck` each.",
+        defaultValue = "${TS_TYPECHECK_SERVICE:-false}"
+    )
+    public boolean $tsTypecheckService;
+
+    @Option(
+        names = { "--csharp-assembly" },
+        description = "Whether to build all C# examples into a single assembly up front and run each with `dotnet <dll>`, instead of `dotnet run` per example.",
+        defaultValue = "${CSHARP_ASSEMBLY:-false}"
+    )
+    public boolean $csharpAssembly;
 }
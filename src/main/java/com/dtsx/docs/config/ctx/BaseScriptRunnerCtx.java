@@ -48,6 +48,26 @@ public abstract class BaseScriptRunnerCtx extends BaseCtx {
     ///
     /// When true, stops execution upon the first failure.
     private final boolean bail;
+    /// Set by `--java-worker` flag or `JAVA_WORKER` env var (default: false).
+    ///
+    /// When true, Java examples are compiled and run in a long-lived worker JVM rather than via `./gradlew run`.
+    private final boolean javaWorker;
+    /// Set by `--python-worker` flag or `PYTHON_WORKER` env var (default: false).
+    ///
+    /// When true, Python examples are run in a long-lived fork server rather than via `.venv/bin/python example.py`.
+    private final boolean pythonWorker;
+    /// Set by `--ts-worker` flag or `TS_WORKER` env var (default: false).
+    ///
+    /// When true, TypeScript examples are run in worker threads of a long-lived Node process rather than via `tsx`.
+    private final boolean tsWorker;
+    /// Set by `--ts-typecheck-service` flag or `TS_TYPECHECK_SERVICE` env var (default: false).
+    ///
+    /// When true, TypeScript examples are type-checked by a long-lived service per environment rather than via `npm run typecheck`.
+    private final boolean tsTypecheckService;
+    /// Set by `--csharp-assembly` flag or `CSHARP_ASSEMBLY` env var (default: false).
+    ///
+    /// When true, C# examples are built into a single assembly before the tests start, rather than via `dotnet run` each.
+    private final boolean csharpAssembly;
 
     /// Returns `resources/environments/<language>/` containing the base project structure.
     ///
@@ -64,6 +84,11 @@ public abstract class BaseScriptRunnerCtx extends BaseCtx {
         this.execEnvTemplatesFolder = CLI_DIR.resolve("resources/environments/");
         this.clean = args.$clean;
         this.bail = args.$bail;
+        this.javaWorker = args.$javaWorker;
+        this.pythonWorker = args.$pythonWorker;
+        this.tsWorker = args.$tsWorker;
+        this.tsTypecheckService = args.$tsTypecheckService;
+        this.csharpAssembly = args.$csharpAssembly;
     }
 
     @Override
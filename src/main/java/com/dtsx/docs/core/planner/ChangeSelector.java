@@ -0,0 +1,131 @@
+package com.dtsx.docs.core.planner;
+
+import com.dtsx.docs.commands.test.TestCtx;
+import com.dtsx.docs.core.planner.meta.BaseMetaYml;
+import com.dtsx.docs.lib.CliLogger;
+import com.dtsx.docs.lib.ExternalPrograms;
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.dtsx.docs.lib.Constants.BASE_DIR;
+
+/// Selects only the {@linkplain TestRoot test roots} affected by changes since a git revision (`test --since <ref>`).
+///
+/// A root is affected if:
+/// - any file it owns changed (its examples, `meta.yml`, `fixture.js`, snapshots, etc.)
+/// - the base fixture it references via `fixtures.base` changed
+/// - anything in `_base/` changed, and the root uses a base or test fixture (which import the prelude)
+///
+/// Changed files are everything `git diff <ref>` reports (committed or not), plus untracked files.
+///
+/// Example:
+/// ```
+/// examples/
+///   _base/prelude.js          <- changed => every root using a fixture
+///   _fixtures/basic-table.js  <- changed => every root with `fixtures.base: basic-table.js`
+///   find-many/                <- test root
+///     example.ts              <- changed => find-many
+///     nested/                 <- nested test root
+///       example.ts            <- changed => find-many/nested only
+/// ```
+@RequiredArgsConstructor
+public class ChangeSelector {
+    private final Path examplesFolder;
+    private final Set<Path> changedFiles;
+    private final Collection<Path> allRoots;
+
+    /// Resolves the files changed since `ref` in the examples folder.
+    ///
+    /// @param ctx the verifier context
+    /// @param ref any git revision (e.g. `origin/main`, `HEAD~3`, a commit sha)
+    /// @param allRoots every test root in the examples folder, used to attribute files to their innermost root
+    /// @return the selector
+    /// @throws PlanException if git fails
+    public static ChangeSelector sinceRef(TestCtx ctx, String ref, Collection<Path> allRoots) {
+        val examplesFolder = ctx.examplesFolder().toAbsolutePath().normalize();
+        val git = ExternalPrograms.git(ctx);
+
+        // --relative makes paths relative to (and limited to) the examples folder, even if it's nested in the repo
+        val diff = git.run(examplesFolder, "diff", "--name-only", "--relative", ref);
+
+        if (diff.notOk()) {
+            throw new PlanException("Failed to list files changed since '" + ref + "':\n" + diff.output());
+        }
+
+        val untracked = git.run(examplesFolder, "ls-files", "--others", "--exclude-standard");
+
+        if (untracked.notOk()) {
+            throw new PlanException("Failed to list untracked files:\n" + untracked.output());
+        }
+
+        val changedFiles = new HashSet<Path>();
+
+        for (val output : List.of(diff.stdout(), untracked.stdout())) {
+            output.lines().map(String::trim).filter(l -> !l.isEmpty()).forEach((line) -> {
+                changedFiles.add(examplesFolder.resolve(line).normalize());
+            });
+        }
+
+        CliLogger.println(true, "@!->!@ Found " + changedFiles.size() + " files changed since @!" + ref + "!@");
+
+        val normalizedRoots = allRoots.stream().map(p -> p.toAbsolutePath().normalize()).toList();
+        return new ChangeSelector(examplesFolder, changedFiles, normalizedRoots);
+    }
+
+    /// Checks if the test root at `rootPath` is affected by any of the changed files.
+    ///
+    /// @param rootPath the test root's path
+    /// @param meta the test root's parsed `meta.yml`
+    /// @return true if the root should be tested
+    public boolean isAffected(Path rootPath, BaseMetaYml meta) {
+        val root = rootPath.toAbsolutePath().normalize();
+
+        val baseFixture = meta.baseFixture().sourcePath()
+            .map(p -> p.toAbsolutePath().normalize());
+
+        val testFixture = meta.testFixture().sourcePath()
+            .map(p -> p.toAbsolutePath().normalize());
+
+        val usesFixtures = baseFixture.isPresent() || testFixture.isPresent();
+        val baseDir = examplesFolder.resolve(BASE_DIR);
+
+        for (val file : changedFiles) {
+            if (file.startsWith(root) && owningRoot(file).equals(root)) {
+                return true;
+            }
+
+            if (baseFixture.isPresent() && baseFixture.get().equals(file)) {
+                return true;
+            }
+
+            if (testFixture.isPresent() && testFixture.get().equals(file)) {
+                return true;
+            }
+
+            if (usesFixtures && file.startsWith(baseDir)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    // the innermost root containing the file, since test roots may be nested
+    private Path owningRoot(Path file) {
+        var owner = examplesFolder;
+
+        for (val root : allRoots) {
+            if (file.startsWith(root) && root.getNameCount() > owner.getNameCount()) {
+                owner = root;
+            }
+        }
+
+        return owner;
+    }
+}
@@ -4,19 +4,33 @@ import com.dtsx.docs.core.planner.fixtures.BaseFixturePool;
 import com.dtsx.docs.core.planner.fixtures.JSFixture;
 import com.dtsx.docs.core.planner.meta.snapshot.ExecutionMode;
 import com.dtsx.docs.core.runner.drivers.ClientLanguage;
+import com.dtsx.docs.core.runner.tests.DurationHistory;
 import com.dtsx.docs.core.runner.tests.strategies.test.SnapshotTestStrategy;
-import lombok.RequiredArgsConstructor;
 import lombok.val;
 import org.apache.commons.lang3.tuple.Pair;
 
 import java.util.*;
 import java.util.function.BiConsumer;
 
-@RequiredArgsConstructor
 public class TestPlan {
     private final SortedMap<BaseFixturePool, SortedSet<TestRoot>> plan;
     private final Set<ClientLanguage> usedLanguages;
 
+    /// The test files of the plan before it was [sharded][#shard], so that shards' results can be checked for coverage
+    private final SortedSet<String> unshardedTestFiles;
+
+    public TestPlan(SortedMap<BaseFixturePool, SortedSet<TestRoot>> plan, Set<ClientLanguage> usedLanguages) {
+        this.plan = plan;
+        this.usedLanguages = usedLanguages;
+        this.unshardedTestFiles = testFiles();
+    }
+
+    private TestPlan(SortedMap<BaseFixturePool, SortedSet<TestRoot>> plan, Set<ClientLanguage> usedLanguages, SortedSet<String> unshardedTestFiles) {
+        this.plan = plan;
+        this.usedLanguages = usedLanguages;
+        this.unshardedTestFiles = unshardedTestFiles;
+    }
+
     public void forEachPool(BiConsumer<BaseFixturePool, SortedSet<TestRoot>> consumer) {
         plan.forEach(consumer);
     }
@@ -29,6 +43,86 @@ public class TestPlan {
         return plan.values().stream().flatMap(Set::stream).mapToInt(root -> root.filesToTest().values().stream().mapToInt(Set::size).sum()).sum();
     }
 
+    /// Returns every file to test in the plan, by its [display path][TestRoot#displayPath] (e.g. `find-many/java/src/main/java/Example.java`).
+    public SortedSet<String> testFiles() {
+        val files = new TreeSet<String>();
+
+        plan.values().stream().flatMap(Set::stream).forEach((root) -> {
+            root.filesToTest().values().stream().flatMap(Set::stream).map(root::displayPath).forEach(files::add);
+        });
+
+        return files;
+    }
+
+    /// Returns every file to test in the plan this one was [sharded][#shard] from (or in this plan, if it wasn't sharded).
+    public SortedSet<String> unshardedTestFiles() {
+        return unshardedTestFiles;
+    }
+
+    /// One of `count` slices of a run, for splitting it across machines with `--shard index/count` (1-based).
+    public record Shard(int index, int count) {
+        @Override
+        public String toString() {
+            return index + "/" + count;
+        }
+    }
+
+    /// Keeps only the given shard's portion of the plan.
+    ///
+    /// Test roots are assigned heaviest-first to whichever shard has the least estimated work so far, with ties broken
+    /// by root name and shard number. A root's weight is its estimated duration per the given `--durations-file`, or its
+    /// number of files to test without one.
+    ///
+    /// Every shard must compute the same split, so the local duration history (which differs between machines) is never
+    /// used here; only a durations file shared by every shard is.
+    ///
+    /// Pools are split by root, so a base fixture may be set up on several shards.
+    ///
+    /// @param shard the shard to keep
+    /// @param durations the shared duration history to balance by, if any
+    /// @return a new plan containing only the shard's test roots
+    public TestPlan shard(Shard shard, Optional<DurationHistory> durations) {
+        val roots = new ArrayList<Pair<BaseFixturePool, TestRoot>>();
+        val weights = new HashMap<TestRoot, Long>();
+
+        plan.forEach((pool, testRoots) -> {
+            for (val root : testRoots) {
+                roots.add(Pair.of(pool, root));
+
+                val estimate = durations.map((d) -> d.estimate(List.of(root))).orElse(0L);
+                weights.put(root, (estimate > 0) ? estimate : root.numFilesToTest());
+            }
+        });
+
+        roots.sort(
+            Comparator.comparing((Pair<BaseFixturePool, TestRoot> p) -> weights.get(p.getRight())).reversed()
+                .thenComparing(p -> p.getRight().rootName())
+        );
+
+        val loads = new long[shard.count()];
+        val kept = new TreeMap<BaseFixturePool, SortedSet<TestRoot>>();
+        val keptLanguages = new HashSet<ClientLanguage>();
+
+        for (val entry : roots) {
+            var target = 0;
+
+            for (var i = 1; i < loads.length; i++) {
+                if (loads[i] < loads[target]) {
+                    target = i;
+                }
+            }
+
+            loads[target] += weights.get(entry.getRight());
+
+            if (target == shard.index() - 1) {
+                kept.computeIfAbsent(entry.getLeft(), _ -> new TreeSet<>()).add(entry.getRight());
+                keptLanguages.addAll(entry.getRight().filesToTest().keySet());
+            }
+        }
+
+        return new TestPlan(kept, keptLanguages, unshardedTestFiles);
+    }
+
     public static class Builder {
         private final Map<JSFixture, PoolInfo> poolInfos = new HashMap<>();
         private final Set<ClientLanguage> usedLanguages = new HashSet<>();
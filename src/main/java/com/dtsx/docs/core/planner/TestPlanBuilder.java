@@ -39,6 +39,8 @@ import static com.dtsx.docs.lib.Constants.META_FILE;
 /// 4. Resolves base and test-specific fixtures
 /// 5. Groups test roots by their base fixture
 ///
+/// With `--since <ref>`, only test roots affected by changes since that git revision are kept (see [ChangeSelector]).
+///
 /// Example directory structure:
 /// ```
 /// examples/
@@ -72,19 +74,48 @@ public class TestPlanBuilder {
             val builder = new Builder();
             val gitignorePredicate = buildGitignorePredicate(ctx.examplesFolder());
 
+            val changeSelector = ctx.since().map((ref) -> {
+                return ChangeSelector.sinceRef(ctx, ref, testRoots);
+            });
+
+            var skippedUnchanged = 0;
+
             for (val rootPath : testRoots) {
-                mkTestRoot(ctx, rootPath, gitignorePredicate).ifPresent(builder::addRoot);
+                val maybeRoot = mkTestRoot(ctx, rootPath, gitignorePredicate);
+
+                if (maybeRoot.isEmpty()) {
+                    continue;
+                }
+
+                if (changeSelector.isPresent() && !changeSelector.get().isAffected(rootPath, maybeRoot.get().getRight().testStrategy().meta())) {
+                    skippedUnchanged++;
+                    continue;
+                }
+
+                builder.addRoot(maybeRoot.get());
+            }
+
+            if (changeSelector.isPresent()) {
+                CliLogger.println(true, "@!->!@ Skipped " + skippedUnchanged + " test roots unaffected by changes");
             }
 
-            val plan = builder.build(ctx.maxFixtureInstances());
+            val fullPlan = builder.build(ctx.maxFixtureInstances());
 
-            CliLogger.println(true, "@!->!@ Found " + plan.totalTests() + " files to test");
-            CliLogger.println(true);
+            CliLogger.println(true, "@!->!@ Found " + fullPlan.totalTests() + " files to test");
 
-            if (plan.totalTests() == 0) {
+            if (fullPlan.totalTests() == 0) {
                 throw new PlanException("No tests found to run after building test plan");
             }
 
+            // an empty shard is fine; there may simply be more shards than test roots
+            val plan = ctx.shard().map((shard) -> {
+                val sharded = fullPlan.shard(shard, ctx.shardDurations());
+                CliLogger.println(true, "@!->!@ Shard @!" + shard + "!@ has " + sharded.totalTests() + " files to test");
+                return sharded;
+            }).orElse(fullPlan);
+
+            CliLogger.println(true);
+
             return plan;
         });
     }
@@ -11,6 +11,7 @@ import org.jetbrains.annotations.NotNull;
 
 import java.util.concurrent.*;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
 import java.util.stream.IntStream;
 
 @SuppressWarnings("ResultOfMethodCallIgnored")
@@ -74,31 +75,41 @@ public class BaseFixturePool implements Comparable<BaseFixturePool> {
     }
 
     public void setup(ExternalProgram tsx) {
-        executeAll(tsx, "Setup", (meta) -> {
+        setup(tsx, _ -> true);
+    }
+
+    /// Same as [#setup(ExternalProgram)], but only for the fixture instances matching the filter.
+    public void setup(ExternalProgram tsx, Predicate<FixtureIndex> filter) {
+        executeAll(tsx, "Setup", filter, (meta) -> {
             baseFixture.setup(tsx, meta);
         });
     }
 
     public void beforeEach(ExternalProgram tsx) {
-        executeAll(tsx, "BeforeEach", (meta) -> {
+        executeAll(tsx, "BeforeEach", _ -> true, (meta) -> {
             baseFixture.beforeEach(tsx, meta, null);
         });
     }
 
     public void afterEach(ExternalProgram tsx) {
-        executeAll(tsx, "AfterEach", (meta) -> {
+        executeAll(tsx, "AfterEach", _ -> true, (meta) -> {
             baseFixture.afterEach(tsx, meta, null);
         });
     }
 
     public void teardown(ExternalProgram tsx) {
-        executeAll(tsx, "Teardown", (meta) -> {
+        teardown(tsx, _ -> true);
+    }
+
+    /// Same as [#teardown(ExternalProgram)], but only for the fixture instances matching the filter.
+    public void teardown(ExternalProgram tsx, Predicate<FixtureIndex> filter) {
+        executeAll(tsx, "Teardown", filter, (meta) -> {
             baseFixture.teardown(tsx, meta);
         });
     }
 
     @SneakyThrows
-    private void executeAll(ExternalProgram tsx, String function, Consumer<FixtureMetadata> action) {
+    private void executeAll(ExternalProgram tsx, String function, Predicate<FixtureIndex> filter, Consumer<FixtureMetadata> action) {
         val parallelInit = meta(tsx, FixtureIndex.ZERO).initialization() == Initialization.PARALLEL;
 
         val initExecutor = (parallelInit)
@@ -118,6 +129,10 @@ public class BaseFixturePool implements Comparable<BaseFixturePool> {
 
                 val index = new FixtureIndex(i);
 
+                if (!filter.test(index)) {
+                    continue;
+                }
+
                 futures.add(initExecutor.submit(() -> {
                     CliLogger.loading("Calling @!%s!@ in @!_fixtures/%s!@%s".formatted(function, baseFixture.fixtureName(), progress), (_) -> {
                         action.accept(meta(tsx, index));
@@ -1,6 +1,6 @@
 package com.dtsx.docs.core.planner.fixtures;
 
-import com.dtsx.docs.commands.test.TestCtx;
+import com.dtsx.docs.config.ctx.BaseCtx;
 import com.dtsx.docs.core.planner.TestRoot;
 import com.dtsx.docs.core.planner.fixtures.BaseFixturePool.FixtureIndex;
 import com.dtsx.docs.core.planner.meta.snapshot.SnapshotTestMetaRep;
@@ -15,6 +15,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.nio.file.Path;
+import java.util.Optional;
 
 import static com.dtsx.docs.HelperCli.CLI_DIR;
 
@@ -69,6 +70,9 @@ public sealed abstract class JSFixture implements Comparable<JSFixture> permits
     @EqualsAndHashCode.Include
     public abstract String fixtureName();
 
+    /// The fixture's source file, if it has one
+    public abstract Optional<Path> sourcePath();
+
     public abstract FixtureMetadata meta(ExternalProgram tsx, FixtureIndex index);
 
     public abstract void setup(ExternalProgram tsx, FixtureMetadata md);
@@ -76,7 +80,7 @@ public sealed abstract class JSFixture implements Comparable<JSFixture> permits
     public abstract void afterEach(ExternalProgram tsx, FixtureMetadata md, @Nullable ClientLanguage lang);
     public abstract void teardown(ExternalProgram tsx, FixtureMetadata md);
 
-    public static void installDependencies(TestCtx ctx) {
+    public static void installDependencies(BaseCtx ctx) {
         CliLogger.debug("Installing JSFixture dependencies in " + Path.of(".").toAbsolutePath());
 
         val res = CliLogger.loading("Installing JS fixture dependencies", (_) -> {
@@ -88,6 +92,13 @@ public sealed abstract class JSFixture implements Comparable<JSFixture> permits
         }
     }
 
+    /// Stops any long-lived fixture host processes started while calling fixture functions.
+    ///
+    /// @see JSFixtureHost
+    public static void stopHosts() {
+        JSFixtureHost.closeAll();
+    }
+
     @Override
     public int compareTo(@NotNull JSFixture o) {
         val p1 = priority(this);
@@ -0,0 +1,311 @@
+package com.dtsx.docs.core.planner.fixtures;
+
+import com.dtsx.docs.config.ctx.BaseCtx;
+import com.dtsx.docs.core.runner.RunException;
+import com.dtsx.docs.lib.CliLogger;
+import com.dtsx.docs.lib.ExternalPrograms.ExternalProgram;
+import com.dtsx.docs.lib.JacksonUtils;
+import lombok.SneakyThrows;
+import lombok.val;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/// A long-lived Node process which imports JS fixtures once and calls their functions on request.
+///
+/// Replaces spawning a fresh `tsx -e` process per fixture call, which re-imported the prelude and rebuilt the
+/// `DataAPIClient` every single time.
+///
+/// Requests and responses are newline-delimited JSON over the host's stdin/stdout:
+/// ```
+/// -> {"id":1,"path":"/abs/_fixtures/basic-table.js","fn":"Setup","tag":"_fixtures/basic-table.js/Setup","env":{"TABLE_NAME":"n0_basic_table",...}}
+/// <- {"id":1,"ok":true,"found":true,"result":"undefined"}
+/// ```
+///
+/// Since the prelude reads the [import-time env vars][#IMPORT_TIME_VARS] (e.g. `NAME_ROOT` and `KEYSPACE_NAME`) once,
+/// a host is only ever used for a single set of them. Hosts are cached by those env vars, and idle hosts are closed
+/// once there are more than [#MAX_HOSTS] of them.
+///
+/// Every other env var (e.g. `TABLE_NAME`, or a language's own vars) is sent along with each call instead, and is only
+/// visible through `process.env` to the function being called (including anything it awaits), not at import time.
+///
+/// Anything the fixtures themselves print is redirected to the host's stderr (tagged with the calling fixture and
+/// function), and forwarded to the debug log.
+final class JSFixtureHost implements AutoCloseable {
+    private static final int MAX_HOSTS = 8;
+
+    /// The env vars read by `_base/prelude.js` when it's imported, which hosts are started (and cached) with
+    private static final List<String> IMPORT_TIME_VARS = List.of("APPLICATION_TOKEN", "API_ENDPOINT", "KEYSPACE_NAME", "NAME_ROOT");
+
+    private static final String HOST_SCRIPT = """
+      import { AsyncLocalStorage } from 'node:async_hooks';
+      import { createInterface } from 'node:readline';
+      import { pathToFileURL } from 'node:url';
+      import { format } from 'node:util';
+
+      const callTag = new AsyncLocalStorage();
+      const callEnv = new AsyncLocalStorage();
+
+      // per-call env vars shadow the host's own, but only within the call they were sent with
+      process.env = new Proxy(process.env, {
+        get: (target, key) => callEnv.getStore()?.[key] ?? target[key],
+        has: (target, key) => key in (callEnv.getStore() ?? {}) || key in target,
+        ownKeys: (target) => [...new Set([...Reflect.ownKeys(target), ...Object.keys(callEnv.getStore() ?? {})])],
+        getOwnPropertyDescriptor: (target, key) => {
+          const env = callEnv.getStore();
+
+          return (env && key in env)
+            ? { value: env[key], writable: true, enumerable: true, configurable: true }
+            : Reflect.getOwnPropertyDescriptor(target, key);
+        },
+      });
+
+      // stdout is reserved for responses
+      console.log = console.info = console.debug = console.warn = console.error = (...args) => {
+        process.stderr.write(`[${callTag.getStore() ?? 'fixture-host'}] ${format(...args)}\\n`);
+      };
+
+      const modules = new Map();
+
+      const load = (path) => {
+        if (!modules.has(path)) {
+          modules.set(path, import(pathToFileURL(path).href));
+        }
+        return modules.get(path);
+      };
+
+      const respond = (res) => {
+        process.stdout.write(JSON.stringify(res) + '\\n');
+      };
+
+      createInterface({ input: process.stdin })
+        .on('line', (line) => {
+          const { id, path, fn, tag, env } = JSON.parse(line);
+
+          callTag.run(tag, async () => {
+            try {
+              const f = (await load(path))[fn];
+
+              if (f) {
+                respond({ id, ok: true, found: true, result: format(await callEnv.run(env, f)) });
+              } else {
+                respond({ id, ok: true, found: false });
+              }
+            } catch (e) {
+              respond({ id, ok: false, error: format(e) });
+            }
+          });
+        })
+        .on('close', () => process.exit(0));
+    """;
+
+    private static final LinkedHashMap<Map<String, String>, JSFixtureHost> hosts = new LinkedHashMap<>(16, 0.75f, true);
+    private static @Nullable Path hostScriptPath;
+
+    private final Process process;
+    private final BufferedWriter stdin;
+    private final Map<Long, CompletableFuture<Response>> pending = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong();
+    private final Deque<String> recentStderr = new ArrayDeque<>();
+    private volatile boolean exited = false;
+    private int leases = 0; // guarded by `hosts`
+
+    private record Request(long id, String path, String fn, String tag, Map<String, String> env) {}
+
+    private record Response(long id, boolean ok, boolean found, @Nullable String result, @Nullable String error) {}
+
+    private JSFixtureHost(Process process) {
+        this.process = process;
+        this.stdin = new BufferedWriter(new OutputStreamWriter(process.getOutputStream()));
+
+        Thread.startVirtualThread(this::readResponses);
+        Thread.startVirtualThread(this::readStderr);
+    }
+
+    /// Calls `function` in the given fixture file, using (or starting) the host for the given env vars' [#IMPORT_TIME_VARS].
+    ///
+    /// @param ctx the context, used to find the temp folder to write the host script to
+    /// @param tsx the tsx program used to start new hosts
+    /// @param envVars the env vars the fixture should see
+    /// @param fixture the fixture file
+    /// @param function the exported function to call
+    /// @param tag prefix for any output the function logs
+    /// @return what `console.log` would've printed for the function's return value, or empty if the function isn't exported
+    static Optional<String> call(BaseCtx ctx, ExternalProgram tsx, Map<String, String> envVars, Path fixture, String function, String tag) {
+        val hostEnvVars = new HashMap<String, String>();
+
+        for (val key : IMPORT_TIME_VARS) {
+            if (envVars.containsKey(key)) {
+                hostEnvVars.put(key, envVars.get(key));
+            }
+        }
+
+        val host = lease(ctx, tsx, hostEnvVars);
+
+        try {
+            return host.call(fixture, function, tag, envVars);
+        } finally {
+            release(host);
+        }
+    }
+
+    /// Closes every host. Calls made after this will simply start new ones.
+    static void closeAll() {
+        synchronized (hosts) {
+            hosts.values().forEach(JSFixtureHost::close);
+            hosts.clear();
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            stdin.close(); // host exits on its own once stdin closes
+        } catch (IOException _) {
+            process.destroy();
+        }
+    }
+
+    private static JSFixtureHost lease(BaseCtx ctx, ExternalProgram tsx, Map<String, String> envVars) {
+        synchronized (hosts) {
+            var host = hosts.get(envVars);
+
+            if (host == null || !host.process.isAlive()) {
+                host = spawn(ctx, tsx, envVars);
+                hosts.put(envVars, host);
+            }
+
+            host.leases++;
+            return host;
+        }
+    }
+
+    private static void release(JSFixtureHost host) {
+        synchronized (hosts) {
+            host.leases--;
+
+            // least recently used hosts come first
+            val it = hosts.values().iterator();
+
+            while (hosts.size() > MAX_HOSTS && it.hasNext()) {
+                val candidate = it.next();
+
+                if (candidate.leases == 0) {
+                    it.remove();
+                    candidate.close();
+                }
+            }
+        }
+    }
+
+    @SneakyThrows
+    private static JSFixtureHost spawn(BaseCtx ctx, ExternalProgram tsx, Map<String, String> envVars) {
+        if (hostScriptPath == null) {
+            val path = ctx.tmpFolder().resolve("fixture_host.mjs");
+            Files.createDirectories(path.getParent());
+            Files.writeString(path, HOST_SCRIPT);
+            hostScriptPath = path;
+        }
+
+        CliLogger.debug("Starting JS fixture host for NAME_ROOT=" + envVars.get("NAME_ROOT"));
+
+        try {
+            return new JSFixtureHost(tsx.start(null, envVars, hostScriptPath.toAbsolutePath().toString()));
+        } catch (IOException e) {
+            throw new RunException("Failed to start JS fixture host", e);
+        }
+    }
+
+    private Optional<String> call(Path fixture, String function, String tag, Map<String, String> envVars) {
+        val id = nextId.incrementAndGet();
+        val future = new CompletableFuture<Response>();
+        pending.put(id, future);
+
+        if (exited) {
+            future.completeExceptionally(new RunException("JS fixture host exited unexpectedly:\n" + recentStderr()));
+        }
+
+        try {
+            val request = JacksonUtils.formatJsonCompact(new Request(id, fixture.toAbsolutePath().toString(), function, tag, envVars));
+
+            synchronized (stdin) {
+                stdin.write(request);
+                stdin.newLine();
+                stdin.flush();
+            }
+
+            val res = future.get();
+
+            if (!res.ok()) {
+                throw new RunException("Failed to call " + function + " in " + fixture + ":\n" + res.error());
+            }
+
+            return (res.found())
+                ? Optional.ofNullable(res.result())
+                : Optional.empty();
+        } catch (IOException e) {
+            throw new RunException("Failed to send request to JS fixture host:\n" + recentStderr(), e);
+        } catch (ExecutionException e) {
+            throw new RunException("Failed to call " + function + " in " + fixture + ": " + e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RunException("Interrupted while calling " + function + " in " + fixture, e);
+        } finally {
+            pending.remove(id);
+        }
+    }
+
+    private void readResponses() {
+        try (val reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                val res = JacksonUtils.parseJson(line, Response.class);
+                val future = pending.get(res.id());
+
+                if (future != null) {
+                    future.complete(res);
+                }
+            }
+        } catch (Exception e) {
+            CliLogger.exception("Error reading from JS fixture host", e);
+        }
+
+        // the host is gone, so nothing left in flight will ever get a response
+        exited = true;
+
+        val exitedEx = new RunException("JS fixture host exited unexpectedly:\n" + recentStderr());
+        pending.values().forEach(f -> f.completeExceptionally(exitedEx));
+    }
+
+    private void readStderr() {
+        try (val reader = new BufferedReader(new InputStreamReader(process.getErrorStream()))) {
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                CliLogger.debug(line);
+
+                synchronized (recentStderr) {
+                    recentStderr.addLast(line);
+
+                    if (recentStderr.size() > 50) {
+                        recentStderr.removeFirst();
+                    }
+                }
+            }
+        } catch (IOException _) {}
+    }
+
+    private String recentStderr() {
+        synchronized (recentStderr) {
+            return String.join("\n", recentStderr);
+        }
+    }
+}
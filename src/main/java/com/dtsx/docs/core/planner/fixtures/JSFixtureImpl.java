@@ -1,14 +1,12 @@
 package com.dtsx.docs.core.planner.fixtures;
 
-import com.dtsx.docs.commands.test.TestCtx;
+import com.dtsx.docs.config.ctx.BaseScriptRunnerCtx;
 import com.dtsx.docs.core.planner.fixtures.BaseFixturePool.FixtureIndex;
 import com.dtsx.docs.core.runner.PlaceholderResolver;
 import com.dtsx.docs.core.runner.RunException;
 import com.dtsx.docs.core.runner.drivers.ClientLanguage;
 import com.dtsx.docs.lib.CliLogger;
 import com.dtsx.docs.lib.ExternalPrograms.ExternalProgram;
-import com.dtsx.docs.lib.ExternalPrograms.RunResult;
-import com.dtsx.docs.lib.ExternalPrograms.StderrLine;
 import com.dtsx.docs.lib.JacksonUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
@@ -17,13 +15,13 @@ import org.jetbrains.annotations.Nullable;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.HashSet;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 @RequiredArgsConstructor
 public final class JSFixtureImpl extends JSFixture {
-    private final TestCtx ctx;
+    private final BaseScriptRunnerCtx ctx;
     private final Path path;
     private final boolean dryRun;
 
@@ -32,6 +30,11 @@ public final class JSFixtureImpl extends JSFixture {
         return path.getFileName().toString();
     }
 
+    @Override
+    public Optional<Path> sourcePath() {
+        return Optional.of(path);
+    }
+
     @Override
     public FixtureMetadata meta(ExternalProgram tsx, FixtureIndex index) {
         val emptyMd = FixtureMetadata.emptyForIndex(index);
@@ -42,7 +45,7 @@ public final class JSFixtureImpl extends JSFixture {
             return emptyMd;
         }
 
-        val output = maybeOutput.get().stdout();
+        val output = maybeOutput.get();
 
         try {
             return JacksonUtils.parseJson(output, FixtureMetadata.class).withIndex(index);
@@ -79,10 +82,10 @@ public final class JSFixtureImpl extends JSFixture {
         }
     }
 
-    private final Set<String> nonexistentFunctions = new HashSet<>();
+    private final Set<String> nonexistentFunctions = ConcurrentHashMap.newKeySet();
 
     @SneakyThrows
-    private Optional<RunResult> tryCallJsFunction(ExternalProgram tsx, FixtureMetadata md, String function, @Nullable ClientLanguage lang) {
+    private Optional<String> tryCallJsFunction(ExternalProgram tsx, FixtureMetadata md, String function, @Nullable ClientLanguage lang) {
         if (nonexistentFunctions.contains(function)) {
             return Optional.empty();
         }
@@ -97,40 +100,17 @@ public final class JSFixtureImpl extends JSFixture {
         val envVars = PlaceholderResolver.mkEnvVars(ctx, md, Optional.ofNullable(lang));
         envVars.put("NAME_ROOT", md.index().toNameRoot());
 
-        val code = """
-          import * as m from '%s';
-        
-          const fn = m.%s;
-        
-          (async () => {
-            if (fn) {
-              console.log(await fn());
-            } else {
-              console.error("function_not_found");
-            }
-          })();
-        """.formatted(path.toAbsolutePath(), function);
+        val tag = "%s/%s".formatted(displayPath, function);
 
         // Calls the function if it exists
         val res = CliLogger.loading("Calling @!%s!@ in @!%s!@".formatted(function, displayPath), (_) -> {
-            return tsx.run(null, envVars, "-e", code);
+            return JSFixtureHost.call(ctx, tsx, envVars, path, function, tag);
         });
 
-        if (res.exitCode() != 0) {
-            throw new RunException("Failed to call " + function + " in " + path + ":\nSTDOUT:\n" + res.stdout() + "\nSTDERR:\n" + res.stderr());
-        }
-
-        if (res.stdout().contains("function_not_found")) {
+        if (res.isEmpty()) {
             nonexistentFunctions.add(function);
-            return Optional.empty();
-        }
-
-        for (val line : res.outputLines()) {
-            if (line instanceof StderrLine(String unwrap)) {
-                CliLogger.debug("[%s/%s] %s".formatted(displayPath, function, unwrap));
-            }
         }
 
-        return Optional.of(res);
+        return res;
     }
 }
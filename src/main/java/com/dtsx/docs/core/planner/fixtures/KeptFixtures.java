@@ -0,0 +1,238 @@
+package com.dtsx.docs.core.planner.fixtures;
+
+import com.dtsx.docs.config.ctx.BaseScriptRunnerCtx;
+import com.dtsx.docs.core.planner.fixtures.BaseFixturePool.FixtureIndex;
+import com.dtsx.docs.core.planner.fixtures.FixtureMetadata.Initialization;
+import com.dtsx.docs.lib.CliLogger;
+import com.dtsx.docs.lib.ExternalPrograms.ExternalProgram;
+import com.dtsx.docs.lib.JacksonUtils;
+import lombok.SneakyThrows;
+import lombok.val;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+import static com.dtsx.docs.lib.Constants.BASE_DIR;
+
+/// A local record of the base fixture instances kept around between runs (`--keep-fixtures`), so that later runs may
+/// skip their `Setup` (and no run calls their `Teardown`) until they're cleaned up with `fixtures gc`.
+///
+/// Each instance is identified by its fixture file, `NAME_ROOT`, keyspace, and the database it was set up in, and is
+/// recorded along with a hash of the fixture file (plus the shared `_base/` files it imports) as of its `Setup`:
+/// ```json
+/// {
+///   "instances": [
+///     { "fixture": "_fixtures/basic-table.js", "index": 0, "keyspace": "default_keyspace", "tableName": "basic_table", "endpoint": "https://...", "hash": "3f1c...e9a0" }
+///   ]
+/// }
+/// ```
+///
+/// An instance whose hash no longer matches is torn down (with the current fixture file) and set up again. Fixtures
+/// are still reset between tests as usual, through their `Reset`/`BeforeEach` functions.
+public final class KeptFixtures {
+    public record Instance(String fixture, int index, String keyspace, @Nullable String collectionName, @Nullable String tableName, String endpoint, String hash) {
+        boolean sameInstanceAs(Instance other) {
+            return fixture.equals(other.fixture) && index == other.index && keyspace.equals(other.keyspace) && endpoint.equals(other.endpoint);
+        }
+    }
+
+    private record State(List<Instance> instances) {}
+
+    private final BaseScriptRunnerCtx ctx;
+    private final Path stateFile;
+    private final List<Instance> instances;
+
+    /// Guards [#instances] and the state file, since pools set up their fixtures concurrently.
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private KeptFixtures(BaseScriptRunnerCtx ctx, Path stateFile, List<Instance> instances) {
+        this.ctx = ctx;
+        this.stateFile = stateFile;
+        this.instances = instances;
+    }
+
+    @SneakyThrows
+    public static KeptFixtures load(BaseScriptRunnerCtx ctx) {
+        val stateFile = ctx.tmpFolder().resolve("kept_fixtures.json");
+
+        val instances = (Files.exists(stateFile))
+            ? JacksonUtils.parseJson(Files.readString(stateFile), State.class).instances()
+            : List.<Instance>of();
+
+        return new KeptFixtures(ctx, stateFile, new ArrayList<>(instances));
+    }
+
+    /// Sets up the pool's fixture instances which aren't already kept from a previous run (or whose fixture changed
+    /// since), then records them all as kept.
+    ///
+    /// @param tsx the tsx program to call the fixture with
+    /// @param pool the base fixture pool to set up
+    public void setup(ExternalProgram tsx, BaseFixturePool pool) {
+        val source = pool.fixture().sourcePath();
+
+        if (source.isEmpty()) {
+            pool.setup(tsx);
+            return;
+        }
+
+        val hash = hash(source.get());
+        val wanted = new ArrayList<Instance>();
+        val upToDate = new HashSet<FixtureIndex>();
+        val stale = new HashSet<FixtureIndex>();
+
+        for (var i = 0; i < pool.size(); i++) {
+            val index = new FixtureIndex(i);
+            val instance = mkInstance(source.get(), pool.meta(tsx, index), hash);
+
+            wanted.add(instance);
+
+            find(instance).ifPresent((kept) -> {
+                (kept.hash().equals(hash) ? upToDate : stale).add(index);
+            });
+        }
+
+        if (!upToDate.isEmpty()) {
+            CliLogger.debug("Reusing %d kept instance(s) of %s".formatted(upToDate.size(), pool.fixture().fixtureName()));
+        }
+
+        if (!stale.isEmpty()) {
+            pool.teardown(tsx, stale::contains);
+        }
+
+        try {
+            pool.setup(tsx, (index) -> !upToDate.contains(index));
+        } catch (Exception e) {
+            pool.teardown(tsx, (index) -> !upToDate.contains(index)); // nothing records these half set up instances
+            throw e;
+        }
+
+        wanted.forEach(this::record);
+    }
+
+    /// Tears down every kept fixture instance in the current database, forgetting each one once it's gone.
+    ///
+    /// Instances whose fixture file no longer exists, or whose `Teardown` fails, are kept for a later attempt.
+    ///
+    /// @param tsx the tsx program to call the fixtures with
+    /// @return whether every instance was torn down
+    public boolean collectGarbage(ExternalProgram tsx) {
+        var allCollected = true;
+
+        for (val instance : snapshot()) {
+            if (!instance.endpoint().equals(ctx.connectionInfo().endpoint())) {
+                continue;
+            }
+
+            val path = ctx.examplesFolder().resolve(instance.fixture());
+            val label = "@!%s!@ @|faint (n%d, %s)|@".formatted(instance.fixture(), instance.index(), instance.keyspace());
+
+            if (!Files.exists(path)) {
+                CliLogger.println(false, "@|yellow !|@ Skipping " + label + " since its fixture file no longer exists");
+                allCollected = false;
+                continue;
+            }
+
+            val md = new FixtureMetadata(
+                Optional.ofNullable(instance.collectionName()),
+                Optional.ofNullable(instance.tableName()),
+                Optional.of(instance.keyspace()),
+                Initialization.SEQUENTIAL
+            ).withIndex(new FixtureIndex(instance.index()));
+
+            try {
+                new JSFixtureImpl(ctx, path, false).teardown(tsx, md);
+                forget(instance);
+                CliLogger.println(false, "@|green ✓|@ Tore down " + label);
+            } catch (Exception e) {
+                CliLogger.exception("Failed to tear down " + instance.fixture() + " (n" + instance.index() + ", " + instance.keyspace() + ")", e);
+                allCollected = false;
+            }
+        }
+
+        return allCollected;
+    }
+
+    public int size() {
+        return snapshot().size();
+    }
+
+    private Instance mkInstance(Path source, FixtureMetadata md, String hash) {
+        return new Instance(
+            ctx.examplesFolder().relativize(source).toString(),
+            md.index().unwrap(),
+            md.keyspaceName(),
+            md.collectionName().orElse(null),
+            md.tableName().orElse(null),
+            ctx.connectionInfo().endpoint(),
+            hash
+        );
+    }
+
+    private Optional<Instance> find(Instance instance) {
+        return snapshot().stream().filter(instance::sameInstanceAs).findFirst();
+    }
+
+    private List<Instance> snapshot() {
+        lock.lock();
+        try {
+            return List.copyOf(instances);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void record(Instance instance) {
+        lock.lock();
+        try {
+            instances.removeIf(instance::sameInstanceAs);
+            instances.add(instance);
+            save();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void forget(Instance instance) {
+        lock.lock();
+        try {
+            instances.removeIf(instance::sameInstanceAs);
+            save();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @SneakyThrows
+    private void save() {
+        Files.createDirectories(stateFile.getParent());
+        Files.writeString(stateFile, JacksonUtils.formatJsonPretty(new State(instances)));
+    }
+
+    @SneakyThrows
+    private String hash(Path fixture) {
+        val md = MessageDigest.getInstance("SHA-256");
+        val files = new ArrayList<>(List.of(fixture));
+        val baseDir = ctx.examplesFolder().resolve(BASE_DIR);
+
+        if (Files.isDirectory(baseDir)) {
+            try (Stream<Path> baseFiles = Files.walk(baseDir)) {
+                baseFiles.filter(Files::isRegularFile).sorted().forEach(files::add);
+            }
+        }
+
+        for (val file : files) {
+            md.update(ctx.examplesFolder().relativize(file).toString().getBytes(StandardCharsets.UTF_8));
+            md.update((byte) 0);
+            md.update(Files.readAllBytes(file));
+            md.update((byte) 0);
+        }
+
+        return HexFormat.of().formatHex(md.digest());
+    }
+}
@@ -7,6 +7,9 @@ import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import org.jetbrains.annotations.Nullable;
 
+import java.nio.file.Path;
+import java.util.Optional;
+
 @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
 public final class NoopFixture extends JSFixture {
     public static final NoopFixture SNAPSHOT_TESTS_INSTANCE = new NoopFixture("no base fixture");
@@ -19,6 +22,11 @@ public final class NoopFixture extends JSFixture {
         return name;
     }
 
+    @Override
+    public Optional<Path> sourcePath() {
+        return Optional.empty();
+    }
+
     @Override
     public FixtureMetadata meta(ExternalProgram tsx, FixtureIndex index) {
         return FixtureMetadata.emptyForIndex(index);
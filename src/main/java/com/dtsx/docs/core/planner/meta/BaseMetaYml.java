@@ -16,6 +16,8 @@ import java.util.Optional;
 public interface BaseMetaYml {
     JSFixture baseFixture();
 
+    JSFixture testFixture();
+
     SkipConfig skipConfig();
 
     PlaceholderVars vars();
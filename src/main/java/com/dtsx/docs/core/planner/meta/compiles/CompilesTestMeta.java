@@ -28,4 +28,9 @@ public final class CompilesTestMeta implements BaseMetaYml {
     public JSFixture baseFixture() {
         return NoopFixture.COMPILATION_TESTS_INSTANCE;
     }
+
+    @Override
+    public JSFixture testFixture() {
+        return NoopFixture.COMPILATION_TESTS_INSTANCE;
+    }
 }
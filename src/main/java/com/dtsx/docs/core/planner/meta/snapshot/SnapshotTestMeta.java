@@ -10,9 +10,13 @@ import com.dtsx.docs.core.planner.meta.BaseMetaYml.BaseMetaYmlRep.TestBlock.Skip
 import com.dtsx.docs.core.planner.meta.BaseMetaYml.BaseMetaYmlRep.TestBlock.SkipConfig.SkipTestType;
 import com.dtsx.docs.core.planner.meta.BaseMetaYml.BaseMetaYmlRep.TestType;
 import com.dtsx.docs.core.planner.meta.snapshot.SnapshotTestMetaRep.FixturesConfig;
+import com.dtsx.docs.core.planner.meta.snapshot.SnapshotTestMetaRep.ScrubRule;
 import com.dtsx.docs.core.runner.PlaceholderVars;
 import com.dtsx.docs.core.runner.drivers.ClientLanguage;
 import com.dtsx.docs.core.runner.tests.snapshots.sources.SnapshotSource;
+import com.dtsx.docs.core.runner.tests.snapshots.verifier.SnapshotVerifier;
+import com.dtsx.docs.core.runner.tests.snapshots.verifier.scrubbers.PatternScrubber;
+import com.dtsx.docs.core.runner.tests.snapshots.verifier.scrubbers.PatternScrubber.Rule;
 import lombok.Getter;
 import lombok.val;
 import tools.jackson.core.type.TypeReference;
@@ -22,6 +26,8 @@ import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 import static com.dtsx.docs.core.runner.tests.VerifyMode.DRY_RUN;
 import static com.dtsx.docs.lib.Constants.DEFAULT_TEST_FIXTURE;
@@ -36,6 +42,7 @@ public final class SnapshotTestMeta implements BaseMetaYml {
     private final SnapshotsShareConfig shareConfig;
     private final ExecutionMode executionMode;
     private final PlaceholderVars vars;
+    private final PatternScrubber scrubber;
 
     public SnapshotTestMeta(TestCtx ctx, Path testRoot, SnapshotTestMetaRep meta) {
         this.skipConfig = SkipConfig.parse((Map<ClientLanguage, SkipTestType> l) -> new SkipConfig(TestType.SNAPSHOT, l), ctx, meta.test().skip(), new TypeReference<>() {});
@@ -45,6 +52,30 @@ public final class SnapshotTestMeta implements BaseMetaYml {
         this.shareConfig = SnapshotsShareConfig.parse(SnapshotsShareConfig::new, ctx, meta.snapshots().share(), new TypeReference<>() {});
         this.executionMode = meta.execution().orElse(ExecutionMode.SEQUENTIAL);
         this.vars = meta.test().vars().orElse(PlaceholderVars.EMPTY);
+        this.scrubber = SnapshotVerifier.SCRUBBER.withRules(parseScrubRules(meta.snapshots().scrub().orElse(List.of())));
+    }
+
+    /// Parses the extra scrub rules from `snapshots.scrub`, which are applied after the default ones.
+    ///
+    /// Example:
+    /// ```yaml
+    /// snapshots:
+    ///   scrub:
+    ///     - pattern: 'req_[a-z0-9]{12}'
+    ///       replacement: 'request_id'
+    /// ```
+    ///
+    /// @param rules the raw rules
+    /// @return the compiled rules
+    /// @throws PlanException if a pattern isn't a valid regex
+    private static List<Rule> parseScrubRules(List<ScrubRule> rules) {
+        return rules.stream().map((rule) -> {
+            try {
+                return new Rule(Pattern.compile(rule.pattern()), rule.replacement());
+            } catch (PatternSyntaxException e) {
+                throw new PlanException("Invalid scrub pattern '" + rule.pattern() + "': " + e.getDescription());
+            }
+        }).toList();
     }
 
     /// Resolves a base fixture from the `_fixtures/` directory.
@@ -3,6 +3,7 @@ package com.dtsx.docs.core.planner.meta.snapshot;
 import com.dtsx.docs.core.planner.meta.BaseMetaYml.BaseMetaYmlRep;
 import lombok.NonNull;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -21,7 +22,13 @@ public record SnapshotTestMetaRep(
 
     public record SnapshotsConfig(
         @NonNull Optional<Object> share,
-        @NonNull Map<String, Map<String, Object>> sources
+        @NonNull Map<String, Map<String, Object>> sources,
+        @NonNull Optional<List<ScrubRule>> scrub
+    ) {}
+
+    public record ScrubRule(
+        @NonNull String pattern,
+        @NonNull String replacement
     ) {}
 
     @Override
@@ -0,0 +1,247 @@
+package com.dtsx.docs.core.runner;
+
+import com.dtsx.docs.config.ctx.BaseScriptRunnerCtx;
+import com.dtsx.docs.core.runner.drivers.ClientDriver;
+import com.dtsx.docs.core.runner.drivers.ClientDriver.ResolvedArtifact;
+import com.dtsx.docs.lib.CliLogger;
+import com.dtsx.docs.lib.JacksonUtils;
+import lombok.SneakyThrows;
+import lombok.val;
+import org.apache.commons.io.file.PathUtils;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+/// A store of fully set up execution environments, which replicas are restored from instead of being set up from scratch.
+///
+/// A snapshot's key is a hash of everything which may affect what [ClientDriver#setupExecutionEnvironment] produces:
+/// - the environment's template directory (`resources/environments/<language>/`)
+/// - the driver's [resolved artifact][ClientDriver#resolvedArtifact] (e.g. `2.1.7` rather than `2.+`)
+/// - the driver's [setup variant][ClientDriver#setupVariant]
+///
+/// If the artifact can't be resolved (e.g. when offline), the artifact as given is used instead, and snapshots made from
+/// it are only trusted for [#UNRESOLVED_TTL], since it may have started resolving to a newer release since.
+///
+/// ```text
+/// .docs_tests_temp/
+///   environment_snapshots/
+///     typescript-3f1c...e9a0/   <- set up once, never modified afterwards
+///       .docs_env.json
+///       node_modules/
+///   execution_environments/
+///     typescript/               <- restored from the snapshot
+///       .docs_env.json
+///       node_modules/           <- hard links into the snapshot's node_modules/
+/// ```
+///
+/// Both snapshots and restored environments carry a small manifest with the key they were made from, along with the
+/// artifact which was installed (written last, so that half-made ones are never mistaken for complete ones):
+/// ```json
+/// { "key": "3f1c...e9a0", "testFile": "example.ts", "artifact": "@datastax/astra-db-ts@2.1.3", "artifactVersion": "2.1.3", "createdAt": 1760000000000 }
+/// ```
+///
+/// The driver's [shared dependency directories][ClientDriver#sharedDependencyDirs] are restored as hard links, since
+/// nothing writes to them once installed; everything else is copied, so tools rewriting their own files in place
+/// (e.g. Gradle, NuGet) can't corrupt the snapshot.
+final class EnvironmentSnapshots {
+    private record Manifest(String key, String testFile, @Nullable String artifact, @Nullable String artifactVersion, long createdAt) {}
+
+    private static final String MANIFEST_FILE = ".docs_env.json";
+
+    /// How long a snapshot made from an unresolved artifact is trusted for
+    private static final Duration UNRESOLVED_TTL = Duration.ofDays(1);
+
+    private final BaseScriptRunnerCtx ctx;
+    private final Path snapshotsDir;
+
+    /// Snapshots made during this run, which are fresh even with `--clean`
+    private final Set<String> madeThisRun = ConcurrentHashMap.newKeySet();
+
+    /// Makes replicas being restored concurrently wait for the first one to make the snapshot, rather than each making it
+    private final Map<String, ReentrantLock> snapshotLocks = new ConcurrentHashMap<>();
+
+    EnvironmentSnapshots(BaseScriptRunnerCtx ctx) {
+        this.ctx = ctx;
+        this.snapshotsDir = ctx.tmpFolder().resolve("environment_snapshots");
+    }
+
+    /// Makes sure `destDir` holds an up-to-date copy of the driver's environment, setting up a new snapshot if needed.
+    ///
+    /// @param driver the client driver to set up the environment for
+    /// @param destDir the environment directory to restore into
+    /// @param setup sets up a new snapshot in the given (template-initialized) directory, returning where test files should be copied
+    /// @return the path (relative to `destDir`) where test files should be copied
+    @SneakyThrows
+    Path restore(ClientDriver driver, Path destDir, UnaryOperator<Path> setup) {
+        val key = key(driver);
+        val resolved = driver.resolvedArtifact(ctx);
+
+        if (!ctx.clean()) {
+            val existing = readManifest(destDir).filter(m -> isFresh(m, key, resolved));
+
+            if (existing.isPresent()) {
+                CliLogger.debug("Reusing up-to-date %s execution environment at %s".formatted(driver.language(), destDir));
+                return Path.of(existing.get().testFile());
+            }
+        }
+
+        val snapshotDir = snapshotsDir.resolve(driver.language().name().toLowerCase() + "-" + key);
+        val lock = snapshotLocks.computeIfAbsent(key, _ -> new ReentrantLock());
+
+        final Manifest manifest;
+
+        lock.lock();
+        try {
+            manifest = readManifest(snapshotDir)
+                .filter(m -> (!ctx.clean() || madeThisRun.contains(key)) && isFresh(m, key, resolved))
+                .orElseGet(() -> mkSnapshot(driver, snapshotDir, key, resolved, setup));
+        } finally {
+            lock.unlock();
+        }
+
+        if (Files.exists(destDir)) {
+            PathUtils.deleteDirectory(destDir);
+        }
+
+        CliLogger.debug("Restoring %s execution environment from %s".formatted(driver.language(), snapshotDir));
+        clone(snapshotDir, destDir, Set.copyOf(driver.sharedDependencyDirs()));
+
+        return Path.of(manifest.testFile());
+    }
+
+    @SneakyThrows
+    private Manifest mkSnapshot(ClientDriver driver, Path snapshotDir, String key, Optional<ResolvedArtifact> resolved, UnaryOperator<Path> setup) {
+        val languageName = driver.language().name().toLowerCase();
+
+        CliLogger.debug("Setting up %s environment snapshot %s from template".formatted(languageName, key));
+        pruneSnapshots(languageName);
+
+        Files.createDirectories(snapshotDir);
+        PathUtils.copyDirectory(ctx.executionEnvironmentTemplate(driver.language()), snapshotDir);
+
+        val testFile = setup.apply(snapshotDir);
+        val manifest = new Manifest(
+            key,
+            snapshotDir.toAbsolutePath().relativize(testFile.toAbsolutePath()).toString(),
+            resolved.map(ResolvedArtifact::spec).or(driver::artifactIfPresent).orElse(null),
+            resolved.map(ResolvedArtifact::version).orElse(null),
+            System.currentTimeMillis()
+        );
+
+        Files.writeString(snapshotDir.resolve(MANIFEST_FILE), JacksonUtils.formatJsonPretty(manifest));
+        madeThisRun.add(key);
+        return manifest;
+    }
+
+    // snapshots made from older templates or artifacts are never restored again
+    @SneakyThrows
+    private void pruneSnapshots(String languageName) {
+        if (!Files.isDirectory(snapshotsDir)) {
+            return;
+        }
+
+        try (Stream<Path> snapshots = Files.list(snapshotsDir)) {
+            for (val snapshot : snapshots.filter(p -> p.getFileName().toString().startsWith(languageName + "-")).toList()) {
+                PathUtils.deleteDirectory(snapshot);
+            }
+        }
+    }
+
+    // the manifest is copied last, so an interrupted restore is never mistaken for a complete one
+    private void clone(Path snapshotDir, Path destDir, Set<String> linkedDirs) throws IOException {
+        Files.walkFileTree(snapshotDir, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                Files.createDirectories(destDir.resolve(snapshotDir.relativize(dir).toString()));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                val relative = snapshotDir.relativize(file);
+                val dest = destDir.resolve(relative.toString());
+
+                if (relative.toString().equals(MANIFEST_FILE)) {
+                    return FileVisitResult.CONTINUE;
+                }
+
+                if (attrs.isRegularFile() && linkedDirs.contains(relative.getName(0).toString())) {
+                    try {
+                        Files.createLink(dest, file);
+                        return FileVisitResult.CONTINUE;
+                    } catch (IOException | UnsupportedOperationException e) {
+                        CliLogger.debug("Failed to hard link " + file + "; copying it instead: " + e.getMessage());
+                    }
+                }
+
+                Files.copy(file, dest, LinkOption.NOFOLLOW_LINKS, StandardCopyOption.COPY_ATTRIBUTES);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+
+        Files.copy(snapshotDir.resolve(MANIFEST_FILE), destDir.resolve(MANIFEST_FILE));
+    }
+
+    private static boolean isFresh(Manifest manifest, String key, Optional<ResolvedArtifact> resolved) {
+        if (!manifest.key().equals(key)) {
+            return false;
+        }
+
+        return resolved.isPresent() || manifest.artifact() == null || System.currentTimeMillis() - manifest.createdAt() < UNRESOLVED_TTL.toMillis();
+    }
+
+    private static Optional<Manifest> readManifest(Path dir) {
+        val file = dir.resolve(MANIFEST_FILE);
+
+        if (!Files.exists(file)) {
+            return Optional.empty();
+        }
+
+        try {
+            return Optional.of(JacksonUtils.parseJson(Files.readString(file), Manifest.class));
+        } catch (Exception e) {
+            CliLogger.debug("Ignoring unreadable environment manifest " + file + ": " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    @SneakyThrows
+    private String key(ClientDriver driver) {
+        val md = MessageDigest.getInstance("SHA-256");
+        val template = ctx.executionEnvironmentTemplate(driver.language());
+
+        val artifact = driver.resolvedArtifact(ctx)
+            .map((r) -> r.spec() + "\0" + r.version())
+            .or(driver::artifactIfPresent)
+            .orElse("");
+
+        for (val part : new String[] { artifact, driver.setupVariant(ctx) }) {
+            md.update(part.getBytes(StandardCharsets.UTF_8));
+            md.update((byte) 0);
+        }
+
+        try (Stream<Path> files = Files.walk(template)) {
+            for (val file : files.filter(Files::isRegularFile).sorted().toList()) {
+                md.update(template.relativize(file).toString().getBytes(StandardCharsets.UTF_8));
+                md.update((byte) 0);
+                md.update(Files.readAllBytes(file));
+                md.update((byte) 0);
+            }
+        }
+
+        return HexFormat.of().formatHex(md.digest(), 0, 8);
+    }
+}
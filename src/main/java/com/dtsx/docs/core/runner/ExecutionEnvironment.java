@@ -4,19 +4,20 @@ import com.dtsx.docs.config.ctx.BaseScriptRunnerCtx;
 import com.dtsx.docs.core.runner.drivers.ClientDriver;
 import com.dtsx.docs.core.runner.drivers.ClientLanguage;
 import com.dtsx.docs.lib.CliLogger;
-import com.dtsx.docs.lib.CliLogger.MessageUpdater;
 import lombok.*;
-import org.apache.commons.io.file.PathUtils;
 import org.intellij.lang.annotations.MagicConstant;
-import org.jetbrains.annotations.Nullable;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Collection;
-import java.util.Map;
-import java.util.Optional;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
 
 /// An isolated execution environment for running example code in a specific client language.
 ///
@@ -36,40 +37,68 @@ import java.util.stream.Collectors;
 ///     build.gradle
 ///     src/main/java/
 ///       Example.java  <- test file copied here
+///   java_1/           <- extra replica (with `--env-replicas 2`)
+///     ...
 /// ```
 ///
+/// Each language may have several identical replicas, which are leased out through [ExecutionEnvironments]
+/// so that multiple examples of the same language can run at once.
+///
 /// The environment handles:
 /// - Dependency installation
 /// - Copying and pre-processing test files based on the {@linkplain ClientDriver client language}
 /// - Cleanup after test execution
 ///
 /// The files themselves are derived from a template directory at `./resources/environments/` containing
-/// the base structure for each language.
+/// the base structure for each language, set up once into an [EnvironmentSnapshots] snapshot which every
+/// replica is then restored from.
 ///
 /// @see ExecutionEnvironments
 /// @see ClientDriver
 @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
 public class ExecutionEnvironment {
     private final BaseScriptRunnerCtx ctx;
+    private final ClientLanguage language;
     private final Path execEnvPath;
 
-    @With(AccessLevel.PRIVATE)
     private final Path testFileCopyPath;
 
+    /// Guards [#testFileCopyPath], since only one test file may occupy the environment at a time.
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /// The original test file currently copied into the environment, if any.
+    private final AtomicReference<Path> sourceFile = new AtomicReference<>();
+
+    /// The modifiers the test file currently copied into the environment was prepared with.
+    private volatile @TestFileModifierFlags int testFileModifiers = TestFileModifiers.NONE;
+
     /// Does what it says on the tin ([ExecutionEnvironment])
     ///
+    /// Every environment is set up concurrently in the background, so this returns immediately; callers only block
+    /// (in [ExecutionEnvironments#acquire]) on the environment for the language they actually need.
+    ///
     /// Example usage:
     /// ```java
-    /// try (val execEnvs = ExecutionEnvironment.setup(ctx, drivers)) {
-    ///     useItHere(execEnvs);
-    /// }
+    /// val execEnvs = ExecutionEnvironment.setup(ctx, drivers);
+    /// doOtherSetupMeanwhile();
+    /// useItHere(execEnvs);
     /// ```
     ///
     /// @param ctx the verifier context
     /// @param drivers the client drivers to create environments for
     /// @return a collection of execution environments, one per language
-    public static ExecutionEnvironments setup(BaseScriptRunnerCtx ctx, Collection<ClientDriver> drivers, @Nullable Runnable extraSetup) {
-        return new Builder(ctx).setup(drivers, Optional.ofNullable(extraSetup).orElse(() -> {}));
+    public static ExecutionEnvironments setup(BaseScriptRunnerCtx ctx, Collection<ClientDriver> drivers) {
+        return setup(ctx, drivers, 1);
+    }
+
+    /// Same as [#setup(BaseScriptRunnerCtx, Collection)], but creates `replicas` identical environments per language.
+    ///
+    /// @param ctx the verifier context
+    /// @param drivers the client drivers to create environments for
+    /// @param replicas the number of environments to create per language (at least 1)
+    /// @return a collection of execution environments, `replicas` per language
+    public static ExecutionEnvironments setup(BaseScriptRunnerCtx ctx, Collection<ClientDriver> drivers, int replicas) {
+        return new Builder(ctx, replicas).setup(drivers);
     }
 
     public static class TestFileModifiers {
@@ -85,6 +114,9 @@ public class ExecutionEnvironment {
     /// The test file is preprocessed to replace placeholders (e.g., `{{API_ENDPOINT}}`)
     /// and apply language-specific transformations before execution.
     ///
+    /// Callers from different threads (e.g. base fixture pools running concurrently) block
+    /// until the environment is free, so two tests never overwrite each other's copied file.
+    ///
     /// Example usage:
     /// ```java
     /// val result = execEnv.withTestFileCopied(driver, sourceFile, () -> {
@@ -97,14 +129,36 @@ public class ExecutionEnvironment {
     /// @param test the test to run with the copied file
     /// @return the result of the test execution
     public <T> T withTestFileCopied(ClientDriver driver, Path sourceFile, Placeholders placeholders, @TestFileModifierFlags int mods, Supplier<T> test) {
-        val testFile = setupFileForTesting(driver, sourceFile, placeholders, mods);
+        lock.lock();
+
         try {
-            return test.get();
+            val testFile = setupFileForTesting(driver, sourceFile, placeholders, mods);
+            this.sourceFile.set(sourceFile);
+            this.testFileModifiers = mods;
+            try {
+                return test.get();
+            } finally {
+                this.sourceFile.set(null);
+                this.testFileModifiers = TestFileModifiers.NONE;
+                cleanupFileAfterTesting(testFile);
+            }
         } finally {
-            cleanupFileAfterTesting(testFile);
+            lock.unlock();
         }
     }
 
+    /// Resolves placeholders in a test file and preprocesses it, the same way [#withTestFileCopied] does, without copying it anywhere.
+    ///
+    /// @param driver the client driver for the test
+    /// @param sourceFile the original test file
+    /// @return the test file's content, ready to be run or compiled
+    @SneakyThrows
+    public String prepareTestFile(ClientDriver driver, Path sourceFile, Placeholders placeholders, @TestFileModifierFlags int mods) {
+        val content = Files.readString(sourceFile);
+        val resolved = PlaceholderResolver.replacePlaceholders(ctx, placeholders, driver.language(), content);
+        return driver.preprocessScript(ctx, resolved, mods);
+    }
+
     /// Returns the absolute path to the language's execution environment directory.
     ///
     /// @return the environment directory path
@@ -119,29 +173,151 @@ public class ExecutionEnvironment {
         return testFileCopyPath.toAbsolutePath().toString();
     }
 
-    /// A collection of execution environments, one for each client language.
+    /// Returns the original test file currently copied into the environment, which drivers may use to look up any
+    /// precompiled form of it.
+    ///
+    /// @return the original test file, or empty if no test is running in the environment
+    public Optional<Path> sourceFile() {
+        return Optional.ofNullable(sourceFile.get());
+    }
+
+    /// Returns the modifiers the test file currently copied into the environment was prepared with, for drivers which
+    /// apply some of them at runtime instead of in [ClientDriver#preprocessScript].
     ///
-    /// Provides access to environments by language and handles any cleanup of all environments if ran with the `--clean` flag.
+    /// @return the test file's modifiers, or [TestFileModifiers#NONE] if no test is running in the environment
+    public @TestFileModifierFlags int testFileModifiers() {
+        return testFileModifiers;
+    }
+
+    /// Returns the language this environment was set up for.
+    ///
+    /// @return the client language
+    public ClientLanguage language() {
+        return language;
+    }
+
+    /// A collection of execution environments, with one or more replicas for each client language.
+    ///
+    /// Replicas become available as soon as they're set up; a language's environment only fails to be acquired once
+    /// every one of its replicas has failed to be set up.
+    ///
+    /// Replicas are leased out and returned much like [com.dtsx.docs.core.planner.fixtures.BaseFixturePool] indices:
+    /// ```java
+    /// val execEnv = execEnvs.acquire(lang);
+    /// try {
+    ///     useItHere(execEnv);
+    /// } finally {
+    ///     execEnvs.release(execEnv);
+    /// }
+    /// ```
     ///
     /// @see ExecutionEnvironment
-    @RequiredArgsConstructor
     public static class ExecutionEnvironments {
-        private final Map<ClientLanguage, ExecutionEnvironment> map;
+        /// The replicas of a language which are set up and not leased out, plus whether any of them is set up at all yet.
+        private record Replicas(BlockingQueue<ExecutionEnvironment> available, CompletableFuture<Void> ready, AtomicInteger pending) {}
+
+        private final Map<ClientLanguage, Replicas> replicas = new HashMap<>();
+
+        /// Every replica set up so far, along with the driver which started it; guarded by `this`.
+        private final Map<ExecutionEnvironment, ClientDriver> started = new HashMap<>();
+        private boolean stopped = false; // guarded by `this`
 
-        /// Gets the execution environment for a specific language.
+        private ExecutionEnvironments(Collection<ClientLanguage> languages, int replicasPerLanguage) {
+            for (val lang : languages) {
+                replicas.put(lang, new Replicas(new LinkedBlockingQueue<>(), new CompletableFuture<>(), new AtomicInteger(replicasPerLanguage)));
+            }
+        }
+
+        /// Leases an execution environment for a specific language, blocking until a replica is set up and free.
+        ///
+        /// Must be given back with [#release(ExecutionEnvironment)] once the caller is done with it.
         ///
         /// @param lang the client language
-        /// @return the execution environment for that language
-        public ExecutionEnvironment forLanguage(ClientLanguage lang) {
-            return map.get(lang);
+        /// @return an execution environment for that language, exclusive to the caller until released
+        /// @throws RunException if no environment was, or could be, set up for that language
+        @SneakyThrows
+        public ExecutionEnvironment acquire(ClientLanguage lang) {
+            val langReplicas = replicas.get(lang);
+
+            if (langReplicas == null) {
+                throw new RunException("No execution environment was set up for " + lang);
+            }
+
+            try {
+                langReplicas.ready().join();
+            } catch (CompletionException e) {
+                throw (e.getCause() instanceof RunException re) ? re : new RunException("Failed to setup " + lang + " execution environment", e.getCause());
+            }
+
+            return langReplicas.available().take();
+        }
+
+        /// Returns a leased execution environment so other callers may use it.
+        ///
+        /// @param execEnv the environment previously returned by [#acquire(ClientLanguage)]
+        public void release(ExecutionEnvironment execEnv) {
+            replicas.get(execEnv.language()).available().offer(execEnv);
+        }
+
+        /// Lets the drivers [stop][ClientDriver#stopExecutionEnvironment] every replica once a run is over.
+        ///
+        /// Replicas which are only done being set up after this are stopped right away.
+        public void stopAll() {
+            final Map<ExecutionEnvironment, ClientDriver> toStop;
+
+            synchronized (this) {
+                stopped = true;
+                toStop = new HashMap<>(started);
+                started.clear();
+            }
+
+            toStop.forEach(ExecutionEnvironments::stop);
+        }
+
+        private static void stop(ExecutionEnvironment execEnv, ClientDriver driver) {
+            try {
+                driver.stopExecutionEnvironment(execEnv.ctx, execEnv);
+            } catch (Exception e) {
+                CliLogger.debug("Failed to stop %s execution environment at %s: %s".formatted(execEnv.language(), execEnv.envDir(), e.getMessage()));
+            }
+        }
+
+        private void setUp(ClientDriver driver, ExecutionEnvironment execEnv) {
+            final boolean alreadyStopped;
+
+            synchronized (this) {
+                alreadyStopped = stopped;
+
+                if (!stopped) {
+                    started.put(execEnv, driver);
+                }
+            }
+
+            if (alreadyStopped) {
+                stop(execEnv, driver);
+                return;
+            }
+
+            val langReplicas = replicas.get(execEnv.language());
+
+            langReplicas.available().offer(execEnv);
+            langReplicas.pending().decrementAndGet();
+            langReplicas.ready().complete(null);
+        }
+
+        // a no-op if another replica was already set up
+        private void failed(ClientLanguage lang, Throwable error) {
+            val langReplicas = replicas.get(lang);
+
+            if (langReplicas.pending().decrementAndGet() == 0) {
+                langReplicas.ready().completeExceptionally(error);
+            }
         }
     }
 
     @SneakyThrows
     private Path setupFileForTesting(ClientDriver driver, Path sourceFile, Placeholders placeholders, @TestFileModifierFlags int mods) {
-        var content = Files.readString(sourceFile);
-        content = PlaceholderResolver.replacePlaceholders(ctx, placeholders, driver.language(), content);
-        content = driver.preprocessScript(ctx, content, mods);
+        val content = prepareTestFile(driver, sourceFile, placeholders, mods);
 
         Files.createDirectories(testFileCopyPath.getParent());
         Files.writeString(testFileCopyPath, content);
@@ -160,16 +336,25 @@ public class ExecutionEnvironment {
     /// 2. Installs JavaScript dependencies (for fixtures)
     ///    - Creating `package.json` if necessary
     /// 3. For each client language:
-    ///    - Copies template from `resources/environments/<language>/`
-    ///    - Lets the driver set up language-specific dependencies
-    ///    - Determines where test files will be copied
-    @RequiredArgsConstructor
+    ///    - Restores the environment from an [up-to-date snapshot][EnvironmentSnapshots], if it isn't already up to date
+    ///    - Only if there's no such snapshot, copies the template from `resources/environments/<language>/` and lets the
+    ///      driver set up language-specific dependencies in it, to make one
+    ///    - Lets the driver [start][ClientDriver#startExecutionEnvironment] the environment
+    ///
+    /// Each replica of each language is set up in its own virtual thread.
     private static class Builder {
         private final BaseScriptRunnerCtx ctx;
+        private final int replicas;
+        private final EnvironmentSnapshots snapshots;
 
-        public ExecutionEnvironments setup(Collection<ClientDriver> drivers, Runnable extraSetup) {
+        private Builder(BaseScriptRunnerCtx ctx, int replicas) {
+            this.ctx = ctx;
+            this.replicas = replicas;
+            this.snapshots = new EnvironmentSnapshots(ctx);
+        }
+
+        public ExecutionEnvironments setup(Collection<ClientDriver> drivers) {
             val rootDir = mkRootFolder();
-            extraSetup.run();
             return mkExecEnvs(drivers, rootDir);
         }
 
@@ -185,66 +370,60 @@ public class ExecutionEnvironment {
         }
 
         private ExecutionEnvironments mkExecEnvs(Collection<ClientDriver> drivers, Path rootDir) {
-            val execEnvs = drivers.stream().collect(Collectors.toMap(
-                ClientDriver::language,
-                (driver) -> mkExecEnv(rootDir, driver)
-            ));
+            val execEnvs = new ExecutionEnvironments(drivers.stream().map(ClientDriver::language).toList(), replicas);
+
+            for (val driver : drivers) {
+                for (var i = 0; i < replicas; i++) {
+                    val replica = i;
+
+                    Thread.startVirtualThread(() -> {
+                        try {
+                            execEnvs.setUp(driver, mkExecEnv(rootDir, driver, replica));
+                        } catch (Throwable e) {
+                            CliLogger.debug("Failed to setup %s execution environment replica %d: %s".formatted(driver.language(), replica, e.getMessage()));
+                            execEnvs.failed(driver.language(), e);
+                        }
+                    });
+                }
+            }
 
-            return new ExecutionEnvironments(execEnvs);
+            return execEnvs;
         }
 
-        private ExecutionEnvironment mkExecEnv(Path rootDir, ClientDriver driver) {
+        private ExecutionEnvironment mkExecEnv(Path rootDir, ClientDriver driver, int replica) {
             val languageName = driver.language().name().toLowerCase();
 
-            return CliLogger.loading("Setting up @!%s!@ execution environment".formatted(languageName), (msgUpdater) -> {
-                val srcExecEnv = ctx.executionEnvironmentTemplate(driver.language());
-                val destExecEnv = rootDir.resolve(driver.language().name().toLowerCase());
+            val replicaSuffix = (replicas > 1)
+                ? " @|faint (replica %d/%d)|@".formatted(replica + 1, replicas)
+                : "";
 
-                val execEnv = new ExecutionEnvironment(ctx, destExecEnv, null);
-                cleanIfNeeded(srcExecEnv, destExecEnv, msgUpdater);
+            return CliLogger.loading("Setting up @!%s!@ execution environment%s".formatted(languageName, replicaSuffix), (_) -> {
+                val destExecEnv = rootDir.resolve(replicaDirName(languageName, replica));
+
+                final Path testFile;
 
                 try {
-                    if (!Files.exists(destExecEnv)) {
-                        CliLogger.debug("Setting up %s execution environment from template".formatted(languageName));
-                        Files.createDirectories(destExecEnv);
-                        PathUtils.copyDirectory(srcExecEnv, destExecEnv);
-                    }
+                    testFile = snapshots.restore(driver, destExecEnv, (snapshotDir) -> {
+                        return driver.setupExecutionEnvironment(ctx, new ExecutionEnvironment(ctx, driver.language(), snapshotDir, null));
+                    });
+                } catch (RunException e) {
+                    throw e;
                 } catch (Exception e) {
                     throw new RunException("Failed to setup " + languageName + " execution environment", e);
                 }
 
-                val testFileCopyPath = driver.setupExecutionEnvironment(ctx, execEnv);
+                val execEnv = new ExecutionEnvironment(ctx, driver.language(), destExecEnv, destExecEnv.resolve(testFile));
+                driver.startExecutionEnvironment(ctx, execEnv);
 
-                return execEnv.withTestFileCopyPath(testFileCopyPath);
+                return execEnv;
             });
         }
 
-        @SneakyThrows
-        private void cleanIfNeeded(Path srcExecEnv, Path destExecEnv, MessageUpdater msgUpdater) {
-            if (ctx.clean() || needsCleaning(srcExecEnv, destExecEnv)) {
-                CliLogger.debug("Cleaning up execution environments");
-
-                if (Files.exists(destExecEnv)) {
-                    msgUpdater.update(m -> m + " (after cleanup)");
-                    PathUtils.deleteDirectory(destExecEnv);
-                }
-            }
-        }
-
-        @SuppressWarnings("resource")
-        private boolean needsCleaning(Path srcExecEnv, Path destExecEnv) {
-            if (!Files.exists(destExecEnv)) {
-                return false;
-            }
-
-            try {
-                val srcFiles = Files.walk(srcExecEnv).filter(Files::isRegularFile).map(srcExecEnv::relativize).collect(Collectors.toSet());
-                val destFiles = Files.walk(destExecEnv).filter(Files::isRegularFile).map(destExecEnv::relativize).collect(Collectors.toSet());
-
-                return !destFiles.containsAll(srcFiles);
-            } catch (Exception e) {
-                throw new RunException("Failed to check if execution environment needs cleaning", e);
-            }
+        // the first replica keeps the plain language name so existing environments are reused as-is
+        private static String replicaDirName(String languageName, int replica) {
+            return (replica == 0)
+                ? languageName
+                : languageName + "_" + replica;
         }
     }
 }
@@ -0,0 +1,126 @@
+package com.dtsx.docs.core.runner.drivers;
+
+import com.dtsx.docs.lib.CliLogger;
+import lombok.SneakyThrows;
+import lombok.val;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+
+/// Helpers for drivers [resolving their artifacts][ClientDriver#resolveArtifact] to the exact client library they'd install.
+public final class ArtifactResolution {
+    private static final HttpClient http = HttpClient.newBuilder()
+        .connectTimeout(Duration.ofSeconds(10))
+        .followRedirects(HttpClient.Redirect.NORMAL)
+        .build();
+
+    /// Orders version strings part by part (numerically where both parts are numbers), with pre-releases (e.g.
+    /// `2.0.0-rc.1`) ordered before their release.
+    public static final Comparator<String> VERSION_ORDER = ArtifactResolution::compareVersions;
+
+    private ArtifactResolution() {}
+
+    /// Returns the file the artifact points to, if it's a path to an existing local file (e.g. a tarball or a wheel).
+    ///
+    /// @param artifact the artifact as given
+    /// @return the file, or empty if the artifact isn't a local file
+    public static Optional<Path> localFile(String artifact) {
+        try {
+            val path = Path.of(artifact);
+            return (Files.isRegularFile(path)) ? Optional.of(path) : Optional.empty();
+        } catch (InvalidPathException e) {
+            return Optional.empty();
+        }
+    }
+
+    /// Hashes the contents of local artifact files, since they may be rebuilt in place without their names changing.
+    ///
+    /// @param files the files, in the order they're given in the artifact
+    /// @return the hash, as `sha256:<hex>`
+    @SneakyThrows
+    public static String hashFiles(List<Path> files) {
+        val md = MessageDigest.getInstance("SHA-256");
+
+        for (val file : files) {
+            md.update(Files.readAllBytes(file));
+            md.update((byte) 0);
+        }
+
+        return "sha256:" + HexFormat.of().formatHex(md.digest());
+    }
+
+    /// Fetches the given URL, e.g. a package registry's version listing.
+    ///
+    /// @param url the URL to `GET`
+    /// @return the response body, or empty if the request failed or didn't respond with a `200`
+    public static Optional<String> fetch(String url) {
+        try {
+            val request = HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(30)).GET().build();
+            val response = http.send(request, HttpResponse.BodyHandlers.ofString());
+
+            if (response.statusCode() != 200) {
+                CliLogger.debug("Failed to fetch " + url + ": HTTP " + response.statusCode());
+                return Optional.empty();
+            }
+
+            return Optional.of(response.body());
+        } catch (IOException e) {
+            CliLogger.debug("Failed to fetch " + url + ": " + e);
+            return Optional.empty();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Optional.empty();
+        }
+    }
+
+    private static int compareVersions(String a, String b) {
+        val aPre = a.indexOf('-');
+        val bPre = b.indexOf('-');
+
+        val release = compareParts((aPre < 0) ? a : a.substring(0, aPre), (bPre < 0) ? b : b.substring(0, bPre));
+
+        if (release != 0) {
+            return release;
+        }
+
+        if (aPre < 0 || bPre < 0) {
+            return Boolean.compare(aPre < 0, bPre < 0);
+        }
+
+        return compareParts(a.substring(aPre + 1), b.substring(bPre + 1));
+    }
+
+    private static int compareParts(String a, String b) {
+        val aParts = a.split("\\.");
+        val bParts = b.split("\\.");
+
+        for (var i = 0; i < Math.min(aParts.length, bParts.length); i++) {
+            val aNumeric = aParts[i].matches("\\d{1,18}");
+            val bNumeric = bParts[i].matches("\\d{1,18}");
+
+            val cmp = (aNumeric && bNumeric)
+                ? Long.compare(Long.parseLong(aParts[i]), Long.parseLong(bParts[i]))
+                : (aNumeric != bNumeric)
+                    ? Boolean.compare(bNumeric, aNumeric) // numeric identifiers sort first, as in semver
+                    : aParts[i].compareTo(bParts[i]);
+
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+
+        return Integer.compare(aParts.length, bParts.length);
+    }
+}
@@ -0,0 +1,165 @@
+package com.dtsx.docs.core.runner.drivers;
+
+import com.dtsx.docs.lib.ExternalPrograms.OutputLine;
+import com.dtsx.docs.lib.ExternalPrograms.RunResult;
+import com.dtsx.docs.lib.ExternalPrograms.StderrLine;
+import com.dtsx.docs.lib.ExternalPrograms.StdoutLine;
+import lombok.SneakyThrows;
+import lombok.val;
+import org.apache.commons.io.file.PathUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/// Compiles many test files with a single compiler invocation (`--batch-compile`), mapping the diagnostics back to the files they came from.
+///
+/// Each file is materialized under its own directory in a scratch `batch/` folder, named after a generated id (`b<index in the files list>`):
+/// ```text
+/// batch/
+///   b0/Example.java   <- package batch.b0
+///   b1/Example.java   <- package batch.b1
+///   ...
+/// ```
+///
+/// Any output line mentioning a generated file (plus the continuation lines following it, up until a blank line) is
+/// blamed on that file, with the generated path replaced by the original example's path. Only files with at least one
+/// blamed line mentioning an `error` are considered failed, so warnings and notes alone don't fail a file.
+///
+/// Some compilers stop early on certain errors (e.g. `mypy` on syntax errors), so the files which weren't blamed are
+/// compiled again as a batch until the compiler succeeds. If it ever fails without blaming any file, the remaining files
+/// are left out of the results, for the caller to compile one by one instead.
+///
+/// @see ClientDriver#compileBatch
+public final class BatchCompilation {
+    /// A test file to compile, already preprocessed, along with the example it came from.
+    public record BatchFile(Path source, String content) {}
+
+    /// What a [BatchFile] looks like once materialized under its id's directory.
+    public record Materialized(String fileName, String content) {}
+
+    private static final Pattern GENERATED_PATH = Pattern.compile("\\S*?batch[/\\\\](b\\d+)[/\\\\][\\w.]+");
+    private static final Pattern ERROR = Pattern.compile("\\berror\\b", Pattern.CASE_INSENSITIVE);
+
+    private BatchCompilation() {}
+
+    /// Compiles the given files in as few compiler invocations as possible.
+    ///
+    /// @param batchDir the scratch folder to materialize the files in (must be named `batch`); deleted after each invocation
+    /// @param files the files to compile
+    /// @param materializer turns a file into its materialized form, given its generated id (e.g. `b12`)
+    /// @param compiler compiles the materialized files, given their paths
+    /// @return the result for each decided file, keyed by its source path
+    public static Map<Path, RunResult> compile(Path batchDir, List<BatchFile> files, BiFunction<String, BatchFile, Materialized> materializer, Function<List<Path>, RunResult> compiler) {
+        val results = new HashMap<Path, RunResult>();
+        var remaining = List.copyOf(files);
+
+        while (!remaining.isEmpty()) {
+            val ids = new HashMap<String, BatchFile>();
+
+            for (val file : remaining) {
+                ids.put(id(files, file), file);
+            }
+
+            val res = compileOnce(batchDir, ids, materializer, compiler);
+
+            if (res.ok()) {
+                remaining.forEach(file -> results.put(file.source(), new RunResult(0, List.of())));
+                break;
+            }
+
+            val blamed = blame(res, ids);
+
+            if (blamed.isEmpty()) {
+                break;
+            }
+
+            blamed.forEach((file, lines) -> results.put(file.source(), new RunResult(res.exitCode(), lines)));
+            remaining = remaining.stream().filter(file -> !blamed.containsKey(file)).toList();
+        }
+
+        return results;
+    }
+
+    /// Returns the id a file is materialized under, which stays the same across compiler invocations.
+    ///
+    /// @param files the files given to [#compile]
+    /// @param file one of those files
+    /// @return the file's id (e.g. `b12`)
+    public static String id(List<BatchFile> files, BatchFile file) {
+        return "b" + files.indexOf(file);
+    }
+
+    @SneakyThrows
+    private static RunResult compileOnce(Path batchDir, Map<String, BatchFile> ids, BiFunction<String, BatchFile, Materialized> materializer, Function<List<Path>, RunResult> compiler) {
+        if (Files.exists(batchDir)) {
+            PathUtils.deleteDirectory(batchDir);
+        }
+
+        try {
+            val generated = new ArrayList<Path>();
+
+            for (val entry : new TreeMap<>(ids).entrySet()) {
+                val materialized = materializer.apply(entry.getKey(), entry.getValue());
+                val path = batchDir.resolve(entry.getKey()).resolve(materialized.fileName());
+
+                Files.createDirectories(path.getParent());
+                Files.writeString(path, materialized.content());
+                generated.add(path);
+            }
+
+            return compiler.apply(generated);
+        } finally {
+            if (Files.exists(batchDir)) {
+                PathUtils.deleteDirectory(batchDir);
+            }
+        }
+    }
+
+    private static Map<BatchFile, List<OutputLine>> blame(RunResult res, Map<String, BatchFile> ids) {
+        val blamed = new LinkedHashMap<BatchFile, List<OutputLine>>();
+        val failed = new HashSet<BatchFile>();
+
+        List<OutputLine> current = null;
+
+        for (val line : res.outputLines()) {
+            val text = line.unwrap();
+            val matcher = GENERATED_PATH.matcher(text);
+
+            if (matcher.find() && ids.containsKey(matcher.group(1))) {
+                val file = ids.get(matcher.group(1));
+
+                current = blamed.computeIfAbsent(file, _ -> new ArrayList<>());
+                current.add(relabel(line, restoreSourcePaths(text, ids)));
+
+                if (ERROR.matcher(text).find()) {
+                    failed.add(file);
+                }
+            } else if (text.isBlank()) {
+                current = null;
+            } else if (current != null) {
+                current.add(line);
+            }
+        }
+
+        blamed.keySet().retainAll(failed);
+        return blamed;
+    }
+
+    private static String restoreSourcePaths(String text, Map<String, BatchFile> ids) {
+        return GENERATED_PATH.matcher(text).replaceAll((m) -> {
+            val file = ids.get(m.group(1));
+            return Matcher.quoteReplacement((file != null) ? file.source().toString() : m.group());
+        });
+    }
+
+    private static OutputLine relabel(OutputLine line, String text) {
+        return (line instanceof StderrLine)
+            ? new StderrLine(text)
+            : new StdoutLine(text);
+    }
+}
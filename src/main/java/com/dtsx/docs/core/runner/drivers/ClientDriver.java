@@ -4,10 +4,12 @@ import com.dtsx.docs.config.ctx.BaseCtx;
 import com.dtsx.docs.config.ctx.BaseScriptRunnerCtx;
 import com.dtsx.docs.core.planner.meta.snapshot.meta.OutputJsonifySourceMeta;
 import com.dtsx.docs.core.runner.ExecutionEnvironment;
+import com.dtsx.docs.core.runner.drivers.BatchCompilation.BatchFile;
 import com.dtsx.docs.core.runner.ExecutionEnvironment.TestFileModifierFlags;
 import com.dtsx.docs.core.runner.RunException;
 import com.dtsx.docs.core.runner.drivers.impls.*;
 import com.dtsx.docs.core.runner.tests.snapshots.verifier.Snapshot;
+import com.dtsx.docs.lib.CliLogger;
 import com.dtsx.docs.lib.ExternalPrograms.ExternalProgram;
 import com.dtsx.docs.lib.ExternalPrograms.RunResult;
 import lombok.AllArgsConstructor;
@@ -17,6 +19,7 @@ import org.jetbrains.annotations.NotNull;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 
 ///  A pluggable driver for setting up and running clients of different languages.
@@ -28,11 +31,11 @@ import java.util.function.Function;
 /// - Execute test code and capture output
 ///
 /// Implementations:
-/// - [TypeScriptDriver] - Runs TypeScript via `tsx`, using `npm` for dependencies
-/// - [JavaDriver] - Compiles and runs Java via Gradle
-/// - [PythonDriver] - Runs Python scripts, using `pip` via `python` in a venv for dependencies
+/// - [TypeScriptDriver] - Runs TypeScript via `tsx` (or in a warm Node worker, with `--ts-worker`), type-checking it via `npm run typecheck` (or in a warm service, with `--ts-typecheck-service`), using `npm` for dependencies
+/// - [JavaDriver] - Compiles and runs Java via Gradle (or in memory in a warm worker JVM, with `--java-worker`)
+/// - [PythonDriver] - Runs Python scripts (or forks them off a warm worker, with `--python-worker`), using `pip` via `python` in a venv for dependencies
 /// - [BashDriver] - Runs bash scripts directly
-/// - [CSharpDriver] - Runs C# scripts via `dotnet@9`
+/// - [CSharpDriver] - Runs C# scripts via `dotnet@9` (or from a single prebuilt assembly, with `--csharp-assembly`)
 /// - [GoDriver] - TODO
 ///
 /// @see ClientLanguage
@@ -47,6 +50,15 @@ public abstract class ClientDriver {
     /// - etc.
     private final String artifact;
 
+    /// The artifact as resolved for this run, once it's first needed (see [#resolvedArtifact])
+    private final AtomicReference<Optional<ResolvedArtifact>> resolvedArtifact = new AtomicReference<>();
+
+    /// The exact client library a driver installs, as resolved from its artifact.
+    ///
+    /// @param spec the pinned artifact which is actually installed (e.g. `@datastax/astra-db-ts@2.1.3`)
+    /// @param version what identifies the installed library (e.g. `2.1.3`, or a hash of a local file's contents)
+    public record ResolvedArtifact(String spec, String version) {}
+
     /// Returns the language this driver handles.
     ///
     /// @return the client language (e.g., {@link ClientLanguage#TYPESCRIPT TYPESCRIPT}, {@link ClientLanguage#JAVA JAVA}, etc.)
@@ -72,12 +84,45 @@ public abstract class ClientDriver {
     /// - Java: Updates `build.gradle` with the artifact version, then runs `./gradlew build`
     /// - etc.
     ///
+    /// The result is snapshotted, and restored into other directories as-is, so anything which must happen every time an
+    /// environment is used (e.g. starting a daemon) belongs in [#startExecutionEnvironment] instead.
+    ///
     /// @param ctx the verifier context
     /// @param execEnv the execution environment to set up
     /// @return the path where test files should be copied (e.g., `main.ts`, `src/main/java/Main.java`)
     /// @throws RunException if setup fails
     public abstract Path setupExecutionEnvironment(BaseScriptRunnerCtx ctx, ExecutionEnvironment execEnv);
 
+    /// Prepares an execution environment for use once it's been set up or restored from a snapshot (e.g. starting a daemon).
+    ///
+    /// @param ctx the verifier context
+    /// @param execEnv the execution environment about to be used
+    /// @throws RunException if the environment can't be started
+    public void startExecutionEnvironment(BaseScriptRunnerCtx ctx, ExecutionEnvironment execEnv) {}
+
+    /// Undoes [#startExecutionEnvironment] once a run is over (e.g. stopping a daemon).
+    ///
+    /// @param ctx the verifier context
+    /// @param execEnv the execution environment which is no longer needed
+    public void stopExecutionEnvironment(BaseScriptRunnerCtx ctx, ExecutionEnvironment execEnv) {}
+
+    /// Returns anything besides the template and artifact which changes what [#setupExecutionEnvironment] produces
+    /// (e.g. a flag it depends on), so that differently set up environments are snapshotted separately.
+    ///
+    /// @param ctx the verifier context
+    /// @return an arbitrary string identifying the variant
+    public String setupVariant(BaseScriptRunnerCtx ctx) {
+        return "";
+    }
+
+    /// Returns the top-level directories [#setupExecutionEnvironment] installs dependencies into which nothing writes to
+    /// afterwards, so restored environments may share their files with the snapshot via hard links instead of copies.
+    ///
+    /// @return the directories' names, relative to the environment directory (e.g. `node_modules`)
+    public List<String> sharedDependencyDirs() {
+        return List.of();
+    }
+
     /// Preprocesses the test script before execution if necessary (e.g. adding imports, prelude code, etc.).
     ///
     /// @param ctx     the verifier context
@@ -101,6 +146,38 @@ public abstract class ClientDriver {
     /// @return the execution result with exit code and output
     public abstract RunResult compileScript(BaseScriptRunnerCtx ctx, ExecutionEnvironment execEnv);
 
+    /// Compiles many test scripts with a single compiler invocation, for drivers which support it (see [BatchCompilation]).
+    ///
+    /// Files missing from the result (by default, all of them) are compiled one by one with [#compileScript] instead.
+    ///
+    /// @param ctx the verifier context
+    /// @param execEnv the execution environment to compile in, exclusive to the caller
+    /// @param files the preprocessed test scripts to compile
+    /// @return the compilation result for each decided file, keyed by its source path
+    public Map<Path, RunResult> compileBatch(BaseScriptRunnerCtx ctx, ExecutionEnvironment execEnv, List<BatchFile> files) {
+        return Map.of();
+    }
+
+    /// Whether the driver wants to [#precompile] the snapshot tests' scripts before any of them run.
+    ///
+    /// @param ctx the verifier context
+    /// @return true if [#precompile] should be called
+    public boolean precompiles(BaseScriptRunnerCtx ctx) {
+        return false;
+    }
+
+    /// Builds every given test script ahead of time, so that [#executeScript] can run them without building each one.
+    ///
+    /// Since fixture names are only known once a test runs, `**KEYSPACE_NAME**`, `**TABLE_NAME**`, and `**COLLECTION_NAME**`
+    /// are left unresolved in the scripts, to be read from the environment variables given to [#executeScript] instead.
+    ///
+    /// Scripts which can't be precompiled should simply be run as usual.
+    ///
+    /// @param ctx the verifier context
+    /// @param execEnv the execution environment to build in, exclusive to the caller
+    /// @param files the preprocessed test scripts
+    public void precompile(BaseScriptRunnerCtx ctx, ExecutionEnvironment execEnv, List<BatchFile> files) {}
+
     /// Executes the test script and returns the result.
     ///
     /// @param ctx the verifier context
@@ -112,18 +189,70 @@ public abstract class ClientDriver {
         return snapshots;
     }
 
-    protected final void replaceArtifactPlaceholder(ExecutionEnvironment execEnv, String file) {
+    protected final void replaceArtifactPlaceholder(BaseScriptRunnerCtx ctx, ExecutionEnvironment execEnv, String file) {
         val path = execEnv.envDir().resolve(file);
 
         try {
             val content = Files.readString(path);
-            val updatedContent = content.replace("${CLIENT_ARTIFACT}", artifact());
+            val updatedContent = content.replace("${CLIENT_ARTIFACT}", artifactToInstall(ctx));
             Files.writeString(path, updatedContent);
         } catch (Exception e) {
             throw new RunException("Failed to update " + file + " with client version", e);
         }
     }
 
+    /// Returns the client artifact this driver uses, or empty for drivers which don't use one (i.e. bash).
+    ///
+    /// @return the artifact, if any
+    public Optional<String> artifactIfPresent() {
+        return Optional.ofNullable(artifact);
+    }
+
+    /// Resolves the artifact to the exact client library it'd install right now (e.g. `2.+` to `2.1.7`), so that
+    /// environment snapshots and cached results aren't keyed against a moving target.
+    ///
+    /// This is resolved once per run, and environments are then set up with the resolved spec (see [#artifactToInstall]),
+    /// so what's installed always matches what was resolved.
+    ///
+    /// @param ctx the verifier context
+    /// @return the resolved artifact, or empty if the driver doesn't use one or it couldn't be resolved (e.g. offline)
+    public final Optional<ResolvedArtifact> resolvedArtifact(BaseScriptRunnerCtx ctx) {
+        synchronized (resolvedArtifact) {
+            if (resolvedArtifact.get() == null) {
+                val resolved = artifactIfPresent().flatMap((a) -> resolveArtifact(ctx, a));
+
+                artifactIfPresent().ifPresent((a) -> {
+                    CliLogger.debug(resolved
+                        .map((r) -> "Resolved %s artifact '%s' to '%s' (%s)".formatted(language(), a, r.spec(), r.version()))
+                        .orElse("Failed to resolve %s artifact '%s'; using it as-is".formatted(language(), a)));
+                });
+
+                resolvedArtifact.set(resolved);
+            }
+
+            return resolvedArtifact.get();
+        }
+    }
+
+    /// Resolves the given artifact to the exact client library it'd install right now, e.g. by asking the package
+    /// registry, or by hashing a local file (see [ArtifactResolution] for helpers).
+    ///
+    /// @param ctx the verifier context
+    /// @param artifact the artifact, as given
+    /// @return the resolved artifact, or empty if it can't be resolved
+    protected Optional<ResolvedArtifact> resolveArtifact(BaseScriptRunnerCtx ctx, String artifact) {
+        return Optional.empty();
+    }
+
+    /// Returns what to install in an execution environment: the resolved artifact's spec if it could be resolved, or the
+    /// artifact as given otherwise.
+    ///
+    /// @param ctx the verifier context
+    /// @return the artifact to install
+    protected final String artifactToInstall(BaseScriptRunnerCtx ctx) {
+        return resolvedArtifact(ctx).map(ResolvedArtifact::spec).orElseGet(this::artifact);
+    }
+
     protected final String artifact() {
         if (artifact == null) {
             throw new RunException("Attempted to access artifact for driver that does not use one: " + language() + ". Did *someone* forget to set a default artifact in ClientLanguage?");
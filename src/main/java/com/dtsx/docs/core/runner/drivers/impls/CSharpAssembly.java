@@ -0,0 +1,210 @@
+package com.dtsx.docs.core.runner.drivers.impls;
+
+import com.dtsx.docs.config.ctx.BaseScriptRunnerCtx;
+import com.dtsx.docs.core.runner.ExecutionEnvironment;
+import com.dtsx.docs.core.runner.RunException;
+import com.dtsx.docs.core.runner.drivers.BatchCompilation;
+import com.dtsx.docs.core.runner.drivers.BatchCompilation.BatchFile;
+import com.dtsx.docs.core.runner.drivers.BatchCompilation.Materialized;
+import com.dtsx.docs.lib.CliLogger;
+import com.dtsx.docs.lib.ExternalPrograms;
+import lombok.SneakyThrows;
+import lombok.val;
+import org.apache.commons.io.file.PathUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/// A single assembly containing every C# example of a run (`--csharp-assembly`), each in its own namespace, and run
+/// through a small entry point which dispatches to the right example's `Main`:
+/// ```text
+/// .docs_tests_temp/csharp_assembly/
+///   Examples.csproj     <- a copy of the environment's Example.csproj
+///   Dispatcher.cs
+///   batch/b0/Example.cs <- namespace Batch.B0
+///   out/Examples.dll    <- dotnet out/Examples.dll Batch.B0
+/// ```
+///
+/// Fixture names (`**KEYSPACE_NAME**`, etc.) aren't known until an example runs, so they're read from the environment
+/// variables the example is run with. Examples where that can't safely be done (placeholders outside of plain string
+/// literals), or which fail to compile, are left out, and run with `dotnet run` as usual.
+final class CSharpAssembly {
+    private static final Pattern RuntimePlaceholderPattern = Pattern.compile("\\*\\*(KEYSPACE_NAME|TABLE_NAME|COLLECTION_NAME)\\*\\*");
+    private static final Pattern PlainStringPattern = Pattern.compile("(?<![@$\"\\w])\"(?:[^\"\\\\\\n]|\\\\.)*\"");
+    private static final Pattern MultilineStringPattern = Pattern.compile("\"\"\"|@\\$?\"");
+    private static final Pattern InterpolatedStringPattern = Pattern.compile("\\$\"|'\"'");
+
+    private static final String DISPATCHER = """
+        using System.Reflection;
+        using System.Runtime.ExceptionServices;
+
+        public static class Dispatcher
+        {
+            public static int Main(string[] args)
+            {
+                var type = typeof(Dispatcher).Assembly.GetType(args[0] + ".Example")
+                    ?? throw new ArgumentException("Unknown example: " + args[0]);
+
+                var main = type.GetMethod("Main", BindingFlags.Public | BindingFlags.NonPublic | BindingFlags.Static)
+                    ?? throw new ArgumentException("No Main method in example: " + args[0]);
+
+                object? result = null;
+
+                try
+                {
+                    result = main.Invoke(null, (main.GetParameters().Length == 0) ? null : new object[] { args[1..] });
+                }
+                catch (TargetInvocationException e) when (e.InnerException != null)
+                {
+                    ExceptionDispatchInfo.Capture(e.InnerException).Throw();
+                }
+
+                switch (result)
+                {
+                    case Task<int> task:
+                        return task.GetAwaiter().GetResult();
+                    case Task task:
+                        task.GetAwaiter().GetResult();
+                        return 0;
+                    case int code:
+                        return code;
+                    default:
+                        return 0;
+                }
+            }
+        }
+
+        public static class DocsPlaceholders
+        {
+            public static string Get(string name)
+            {
+                return Environment.GetEnvironmentVariable(name)
+                    ?? throw new InvalidOperationException("Missing value for placeholder: **" + name + "**");
+            }
+        }
+        """;
+
+    private final Path dll;
+    private final Map<Path, String> entryPoints;
+
+    private CSharpAssembly(Path dll, Map<Path, String> entryPoints) {
+        this.dll = dll;
+        this.entryPoints = entryPoints;
+    }
+
+    /// Builds the assembly from the given examples, using the execution environment's (already restored) project file.
+    ///
+    /// @param ctx the verifier context
+    /// @param execEnv the C# execution environment
+    /// @param files the preprocessed examples, with fixture names still unresolved
+    /// @return the built assembly, containing only the examples which could be built
+    @SneakyThrows
+    static CSharpAssembly build(BaseScriptRunnerCtx ctx, ExecutionEnvironment execEnv, List<BatchFile> files) {
+        val projectDir = ctx.tmpFolder().resolve("csharp_assembly");
+        val outDir = projectDir.resolve("out");
+
+        if (Files.exists(projectDir)) {
+            PathUtils.deleteDirectory(projectDir);
+        }
+
+        Files.createDirectories(projectDir);
+        Files.copy(execEnv.envDir().resolve("Example.csproj"), projectDir.resolve("Examples.csproj"));
+        Files.writeString(projectDir.resolve("Dispatcher.cs"), DISPATCHER);
+
+        val dotnet = ExternalPrograms.dotnet(ctx);
+
+        val restore = dotnet.run(projectDir, "restore");
+        if (restore.notOk()) {
+            throw new RunException("Failed to restore C# assembly dependencies:\n" + restore.output());
+        }
+
+        val buildable = new ArrayList<BatchFile>();
+        val contents = new HashMap<BatchFile, String>();
+
+        for (val file : files) {
+            withRuntimePlaceholders(file.content()).ifPresentOrElse((content) -> {
+                buildable.add(file);
+                contents.put(file, content);
+            }, () -> {
+                CliLogger.debug("Not adding " + file.source() + " to the C# assembly, as its fixture placeholders can't be resolved at runtime");
+            });
+        }
+
+        val results = BatchCompilation.compile(projectDir.resolve("batch"), buildable, (id, file) -> {
+            return new Materialized("Example.cs", CSharpDriver.addNamespace(contents.get(file), namespace(id)));
+        }, (_) -> {
+            return dotnet.run(projectDir, "build", "--no-restore", "-o", outDir.toString(), "-p:StartupObject=Dispatcher");
+        });
+
+        val entryPoints = new HashMap<Path, String>();
+
+        for (val file : buildable) {
+            val res = results.get(file.source());
+
+            if (res != null && res.ok()) {
+                entryPoints.put(file.source(), namespace(BatchCompilation.id(buildable, file)));
+            }
+        }
+
+        return new CSharpAssembly(outDir.resolve("Examples.dll"), entryPoints);
+    }
+
+    /// Returns the arguments to run an example with (after `dotnet`), if it's part of the assembly.
+    ///
+    /// @param source the original example file
+    /// @return `[<dll>, <namespace>]`, or empty if the example must be run with `dotnet run`
+    Optional<String[]> runArgs(Path source) {
+        return Optional.ofNullable(entryPoints.get(source)).map((namespace) -> {
+            return new String[] { dll.toString(), namespace };
+        });
+    }
+
+    int size() {
+        return entryPoints.size();
+    }
+
+    static String namespace(String batchId) {
+        return "Batch." + batchId.toUpperCase();
+    }
+
+    // `"... **COLLECTION_NAME** ..."` -> `("... " + DocsPlaceholders.Get("COLLECTION_NAME") + " ...")`
+    private static Optional<String> withRuntimePlaceholders(String content) {
+        if (!RuntimePlaceholderPattern.matcher(content).find()) {
+            return Optional.of(content);
+        }
+
+        // raw, verbatim, and interpolated strings (or anything else which could throw off finding plain string literals) aren't supported
+        if (MultilineStringPattern.matcher(content).find()) {
+            return Optional.empty();
+        }
+
+        val unsupportedLine = content.lines().anyMatch((line) -> {
+            return RuntimePlaceholderPattern.matcher(line).find() && InterpolatedStringPattern.matcher(line).find();
+        });
+
+        if (unsupportedLine) {
+            return Optional.empty();
+        }
+
+        val replaced = PlainStringPattern.matcher(content).replaceAll((literal) -> {
+            val placeholders = RuntimePlaceholderPattern.matcher(literal.group());
+
+            if (!placeholders.find()) {
+                return Matcher.quoteReplacement(literal.group());
+            }
+
+            val concatenated = placeholders.replaceAll((p) -> {
+                return Matcher.quoteReplacement("\" + DocsPlaceholders.Get(\"" + p.group(1) + "\") + \"");
+            });
+
+            return Matcher.quoteReplacement("(" + concatenated + ")");
+        });
+
+        return (RuntimePlaceholderPattern.matcher(replaced).find())
+            ? Optional.empty()
+            : Optional.of(replaced);
+    }
+}
@@ -6,20 +6,30 @@ import com.dtsx.docs.core.planner.meta.snapshot.meta.OutputJsonifySourceMeta;
 import com.dtsx.docs.core.runner.ExecutionEnvironment;
 import com.dtsx.docs.core.runner.ExecutionEnvironment.TestFileModifierFlags;
 import com.dtsx.docs.core.runner.RunException;
+import com.dtsx.docs.core.runner.drivers.ArtifactResolution;
+import com.dtsx.docs.core.runner.drivers.BatchCompilation;
+import com.dtsx.docs.core.runner.drivers.BatchCompilation.BatchFile;
+import com.dtsx.docs.core.runner.drivers.BatchCompilation.Materialized;
 import com.dtsx.docs.core.runner.drivers.ClientDriver;
 import com.dtsx.docs.core.runner.drivers.ClientLanguage;
 import com.dtsx.docs.lib.ExternalPrograms;
 import com.dtsx.docs.lib.ExternalPrograms.ExternalProgram;
 import com.dtsx.docs.lib.ExternalPrograms.RunResult;
+import com.dtsx.docs.lib.CliLogger;
 import com.dtsx.docs.lib.JacksonUtils;
 import lombok.val;
 
 import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.function.Function;
+import java.util.regex.Pattern;
 
 public class CSharpDriver extends ClientDriver {
+    /// Every C# example of the run, prebuilt (only used with `--csharp-assembly`)
+    private volatile CSharpAssembly assembly;
+
     public CSharpDriver(String artifact) {
         super(artifact);
     }
@@ -36,7 +46,7 @@ public class CSharpDriver extends ClientDriver {
 
     @Override
     public Path setupExecutionEnvironment(BaseScriptRunnerCtx ctx, ExecutionEnvironment execEnv) {
-        replaceArtifactPlaceholder(execEnv, "Example.csproj");
+        replaceArtifactPlaceholder(ctx, execEnv, "Example.csproj");
 
         val dotnet = ExternalPrograms.dotnet(ctx);
 
@@ -48,6 +58,44 @@ public class CSharpDriver extends ClientDriver {
         return execEnv.envDir().resolve("Example.cs");
     }
 
+    private static final Pattern IncludeAttrPattern = Pattern.compile("Include=\"([^\"]+)\"");
+    private static final Pattern VersionAttrPattern = Pattern.compile("Version=\"([^\"]+)\"");
+
+    private record NuGetVersions(List<String> versions) {}
+
+    // floating versions (e.g. `2.*-*`) are resolved against nuget.org's listing, as `dotnet restore` would
+    @Override
+    protected Optional<ResolvedArtifact> resolveArtifact(BaseScriptRunnerCtx ctx, String artifact) {
+        val include = IncludeAttrPattern.matcher(artifact);
+        val version = VersionAttrPattern.matcher(artifact);
+
+        if (!include.find() || !version.find()) {
+            return Optional.empty();
+        }
+
+        val floating = version.group(1);
+
+        if (!floating.contains("*")) {
+            return (floating.matches(".*[\\[\\](),].*"))
+                ? Optional.empty()
+                : Optional.of(new ResolvedArtifact(artifact, floating));
+        }
+
+        val prefix = floating.substring(0, floating.indexOf('*'));
+        val allowPrerelease = floating.contains("-");
+
+        val indexUrl = "https://api.nuget.org/v3-flatcontainer/%s/index.json".formatted(include.group(1).toLowerCase());
+
+        return ArtifactResolution.fetch(indexUrl).flatMap((index) -> {
+            return JacksonUtils.parseJson(index, NuGetVersions.class).versions().stream()
+                .filter((v) -> v.startsWith(prefix.toLowerCase()))
+                .filter((v) -> allowPrerelease || !v.contains("-"))
+                .max(ArtifactResolution.VERSION_ORDER);
+        }).map((resolved) -> {
+            return new ResolvedArtifact(VersionAttrPattern.matcher(artifact).replaceFirst("Version=\"" + resolved + "\""), resolved);
+        });
+    }
+
     @Override
     public String preprocessScript(BaseScriptRunnerCtx ignoredCtx, String content, @TestFileModifierFlags int mods) {
         val mainIndex = content.indexOf("Main(");
@@ -84,8 +132,59 @@ public class CSharpDriver extends ClientDriver {
         return ExternalPrograms.dotnet(ctx).run(execEnv.envDir(), "build");
     }
 
+    private static final Pattern NamespaceDeclPattern = Pattern.compile("^namespace\\s+[\\w.]+", Pattern.MULTILINE);
+    private static final Pattern UsingDirectivePattern = Pattern.compile("^(?:global\\s+)?using\\s+[^;(]+;[^\\n]*", Pattern.MULTILINE);
+
+    // each file gets its own namespace (kept on an existing line so line numbers still match), and is built as a
+    // library so that the many `Main` methods don't clash
+    @Override
+    public Map<Path, RunResult> compileBatch(BaseScriptRunnerCtx ctx, ExecutionEnvironment execEnv, List<BatchFile> files) {
+        val batchDir = execEnv.envDir().resolve("batch");
+
+        return BatchCompilation.compile(batchDir, files, (id, file) -> {
+            return new Materialized("Example.cs", addNamespace(file.content(), CSharpAssembly.namespace(id)));
+        }, (_) -> {
+            return ExternalPrograms.dotnet(ctx).run(execEnv.envDir(), "build", "-p:OutputType=Library");
+        });
+    }
+
+    static String addNamespace(String content, String namespace) {
+        val existing = NamespaceDeclPattern.matcher(content);
+
+        if (existing.find()) {
+            return existing.replaceFirst("namespace " + namespace);
+        }
+
+        val usings = UsingDirectivePattern.matcher(content);
+        var insertPos = 0;
+
+        while (usings.find()) {
+            insertPos = usings.end();
+        }
+
+        return (insertPos == 0)
+            ? "namespace " + namespace + "; " + content
+            : content.substring(0, insertPos) + " namespace " + namespace + ";" + content.substring(insertPos);
+    }
+
+    @Override
+    public boolean precompiles(BaseScriptRunnerCtx ctx) {
+        return ctx.csharpAssembly();
+    }
+
+    @Override
+    public void precompile(BaseScriptRunnerCtx ctx, ExecutionEnvironment execEnv, List<BatchFile> files) {
+        assembly = CSharpAssembly.build(ctx, execEnv, files);
+        CliLogger.debug("Built %d of %d C# example(s) into a single assembly".formatted(assembly.size(), files.size()));
+    }
+
     @Override
     public RunResult executeScript(BaseScriptRunnerCtx ctx, ExecutionEnvironment execEnv, Map<String, String> envVars) {
+        val prebuilt = Optional.ofNullable(assembly).flatMap(a -> execEnv.sourceFile().flatMap(a::runArgs));
+
+        if (prebuilt.isPresent()) {
+            return ExternalPrograms.dotnet(ctx).run(execEnv.envDir(), envVars, prebuilt.get());
+        }
         return ExternalPrograms.dotnet(ctx).run(execEnv.envDir(), envVars, "run");
     }
 }
@@ -7,6 +7,10 @@ import com.dtsx.docs.core.runner.ExecutionEnvironment;
 import com.dtsx.docs.core.runner.ExecutionEnvironment.TestFileModifierFlags;
 import com.dtsx.docs.core.runner.ExecutionEnvironment.TestFileModifiers;
 import com.dtsx.docs.core.runner.RunException;
+import com.dtsx.docs.core.runner.drivers.ArtifactResolution;
+import com.dtsx.docs.core.runner.drivers.BatchCompilation;
+import com.dtsx.docs.core.runner.drivers.BatchCompilation.BatchFile;
+import com.dtsx.docs.core.runner.drivers.BatchCompilation.Materialized;
 import com.dtsx.docs.core.runner.drivers.ClientDriver;
 import com.dtsx.docs.core.runner.drivers.ClientLanguage;
 import com.dtsx.docs.lib.ExternalPrograms;
@@ -15,13 +19,19 @@ import com.dtsx.docs.lib.ExternalPrograms.RunResult;
 import com.dtsx.docs.lib.JacksonUtils;
 import lombok.val;
 
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import java.util.regex.Pattern;
 
 public class JavaDriver extends ClientDriver {
+    /// Warm worker JVMs, keyed by execution environment directory (only used with `--java-worker`)
+    private final Map<Path, JavaWorker> workers = new ConcurrentHashMap<>();
+
     public JavaDriver(String artifact) {
         super(artifact);
     }
@@ -38,9 +48,12 @@ public class JavaDriver extends ClientDriver {
 
     @Override
     public Path setupExecutionEnvironment(BaseScriptRunnerCtx ctx, ExecutionEnvironment execEnv) {
-        replaceArtifactPlaceholder(execEnv, "build.gradle");
+        replaceArtifactPlaceholder(ctx, execEnv, "build.gradle");
+
+        val build = (ctx.javaWorker())
+            ? ExternalPrograms.custom().run(execEnv.envDir(), "./gradlew", "build", "writeClasspath")
+            : ExternalPrograms.custom().run(execEnv.envDir(), "./gradlew", "build");
 
-        val build = ExternalPrograms.custom().run(execEnv.envDir(), "./gradlew", "build");
         if (build.notOk()) {
             throw new RunException("Failed to build Java client:\n" + build.output());
         }
@@ -48,6 +61,69 @@ public class JavaDriver extends ClientDriver {
         return execEnv.envDir().resolve("src/main/java/Example.java");
     }
 
+    @Override
+    public String setupVariant(BaseScriptRunnerCtx ctx) {
+        return (ctx.javaWorker()) ? "classpath" : "";
+    }
+
+    private static final Pattern FilesArtifactPattern = Pattern.compile("^files\\((.*)\\)$");
+    private static final Pattern MavenArtifactPattern = Pattern.compile("^\"([^:\"]+):([^:\"]+):([^:\"]+)\"$");
+    private static final Pattern QuotedPattern = Pattern.compile("\"([^\"]+)\"");
+    private static final Pattern MetadataVersionPattern = Pattern.compile("<version>([^<]+)</version>");
+
+    // jars are identified by their contents; coordinates by the version Gradle would pick from Maven Central for them
+    @Override
+    protected Optional<ResolvedArtifact> resolveArtifact(BaseScriptRunnerCtx ctx, String artifact) {
+        val files = FilesArtifactPattern.matcher(artifact.trim());
+
+        if (files.matches()) {
+            val jars = QuotedPattern.matcher(files.group(1)).results().map((m) -> Path.of(m.group(1))).toList();
+
+            if (jars.isEmpty() || !jars.stream().allMatch(Files::isRegularFile)) {
+                return Optional.empty();
+            }
+
+            return Optional.of(new ResolvedArtifact(artifact, ArtifactResolution.hashFiles(jars)));
+        }
+
+        val coords = MavenArtifactPattern.matcher(artifact.trim());
+
+        if (!coords.matches()) {
+            return Optional.empty();
+        }
+
+        val group = coords.group(1);
+        val name = coords.group(2);
+        val version = coords.group(3);
+
+        val isDynamic = version.endsWith("+") || version.startsWith("latest.");
+
+        if (!isDynamic) {
+            // version ranges and snapshots move too, but aren't worth resolving ourselves
+            return (version.matches(".*[\\[\\](),].*") || version.endsWith("-SNAPSHOT"))
+                ? Optional.empty()
+                : Optional.of(new ResolvedArtifact(artifact, version));
+        }
+
+        val metadataUrl = "https://repo1.maven.org/maven2/%s/%s/maven-metadata.xml".formatted(group.replace('.', '/'), name);
+
+        return ArtifactResolution.fetch(metadataUrl).flatMap((metadata) -> {
+            val versions = MetadataVersionPattern.matcher(metadata).results().map((m) -> m.group(1)).toList();
+
+            val prefix = (version.endsWith("+"))
+                ? version.substring(0, version.length() - 1)
+                : "";
+
+            val candidates = versions.stream()
+                .filter((v) -> v.startsWith(prefix))
+                .filter((v) -> !version.equals("latest.release") || !v.endsWith("-SNAPSHOT"));
+
+            return candidates.max(ArtifactResolution.VERSION_ORDER);
+        }).map((resolved) -> {
+            return new ResolvedArtifact("\"%s:%s:%s\"".formatted(group, name, resolved), resolved);
+        });
+    }
+
     @Override
     public String preprocessScript(BaseScriptRunnerCtx ignoredCtx, String content, @TestFileModifierFlags int mods) {
         if ((mods & TestFileModifiers.JSONIFY_OUTPUT) != 0) {
@@ -101,11 +177,48 @@ public class JavaDriver extends ClientDriver {
 
     @Override
     public RunResult compileScript(BaseScriptRunnerCtx ctx, ExecutionEnvironment execEnv) {
+        if (ctx.javaWorker()) {
+            return worker(ctx, execEnv).compile(execEnv);
+        }
         return ExternalPrograms.custom().run(execEnv.envDir(), "./gradlew", "build");
     }
 
+    private static final Pattern PackageDeclPattern = Pattern.compile("^package\\s+[\\w.]+\\s*;", Pattern.MULTILINE);
+
+    // each file gets its own package (kept on the first line so line numbers still match), and javac is told to keep
+    // going past the first broken file so that every file gets its own diagnostics
+    @Override
+    public Map<Path, RunResult> compileBatch(BaseScriptRunnerCtx ctx, ExecutionEnvironment execEnv, List<BatchFile> files) {
+        val batchDir = execEnv.envDir().resolve("src/main/java/batch");
+
+        return BatchCompilation.compile(batchDir, files, (id, file) -> {
+            val packageDecl = "package batch." + id + ";";
+            val matcher = PackageDeclPattern.matcher(file.content());
+
+            val content = (matcher.find())
+                ? matcher.replaceFirst(packageDecl)
+                : packageDecl + " " + file.content();
+
+            return new Materialized("Example.java", content);
+        }, (_) -> {
+            return ExternalPrograms.custom().run(execEnv.envDir(), "./gradlew", "compileJava", "-PbatchCompile");
+        });
+    }
+
     @Override
     public RunResult executeScript(BaseScriptRunnerCtx ctx, ExecutionEnvironment execEnv, Map<String, String> envVars) {
+        if (ctx.javaWorker()) {
+            return worker(ctx, execEnv).run(execEnv, envVars);
+        }
         return ExternalPrograms.custom().run(execEnv.envDir(), envVars, "./gradlew", "run", "--quiet");
     }
+
+    // (re)starts the worker if it died, e.g. because an example called System.exit
+    private JavaWorker worker(BaseScriptRunnerCtx ctx, ExecutionEnvironment execEnv) {
+        return workers.compute(execEnv.envDir(), (_, worker) -> {
+            return (worker != null && worker.isAlive())
+                ? worker
+                : JavaWorker.start(ctx, execEnv);
+        });
+    }
 }
@@ -0,0 +1,44 @@
+package com.dtsx.docs.core.runner.drivers.impls;
+
+import com.dtsx.docs.config.ctx.BaseScriptRunnerCtx;
+import com.dtsx.docs.core.runner.ExecutionEnvironment;
+import com.dtsx.docs.core.runner.RunException;
+import com.dtsx.docs.lib.ExternalPrograms;
+import com.dtsx.docs.lib.ExternalPrograms.RunResult;
+import lombok.val;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Map;
+
+/// A warm JVM which compiles and runs an execution environment's `Example.java` in memory.
+///
+/// Talks to `worker/ExampleWorker.java` in the Java execution environment, which is launched with the client's
+/// runtime classpath as resolved by Gradle during [JavaDriver#setupExecutionEnvironment].
+///
+/// One worker is used per execution environment, and requests are handled one at a time.
+final class JavaWorker extends WorkerProcess {
+    private JavaWorker(Process process) {
+        super("java-worker", process);
+    }
+
+    static JavaWorker start(BaseScriptRunnerCtx ctx, ExecutionEnvironment execEnv) {
+        val classpathFile = execEnv.envDir().resolve("build/classpath.txt");
+
+        try {
+            val classpath = Files.readString(classpathFile).trim();
+            val process = ExternalPrograms.java(ctx).start(execEnv.envDir(), null, "--add-opens", "java.base/java.util=ALL-UNNAMED", "-cp", classpath, "worker/ExampleWorker.java");
+            return new JavaWorker(process);
+        } catch (IOException e) {
+            throw new RunException("Failed to start Java worker from " + classpathFile, e);
+        }
+    }
+
+    RunResult compile(ExecutionEnvironment execEnv) {
+        return request('C', execEnv.scriptPath());
+    }
+
+    RunResult run(ExecutionEnvironment execEnv, Map<String, String> envVars) {
+        return request('R', execEnv.scriptPath(), envVars);
+    }
+}
@@ -6,21 +6,41 @@ import com.dtsx.docs.core.planner.meta.snapshot.meta.OutputJsonifySourceMeta;
 import com.dtsx.docs.core.runner.ExecutionEnvironment;
 import com.dtsx.docs.core.runner.ExecutionEnvironment.TestFileModifierFlags;
 import com.dtsx.docs.core.runner.ExecutionEnvironment.TestFileModifiers;
+import com.dtsx.docs.core.runner.RunException;
+import com.dtsx.docs.core.runner.drivers.ArtifactResolution;
+import com.dtsx.docs.core.runner.drivers.BatchCompilation;
+import com.dtsx.docs.core.runner.drivers.BatchCompilation.BatchFile;
+import com.dtsx.docs.core.runner.drivers.BatchCompilation.Materialized;
 import com.dtsx.docs.core.runner.drivers.ClientDriver;
 import com.dtsx.docs.core.runner.drivers.ClientLanguage;
 import com.dtsx.docs.lib.ExternalPrograms;
 import com.dtsx.docs.lib.ExternalPrograms.ExternalProgram;
 import com.dtsx.docs.lib.ExternalPrograms.RunResult;
 import com.dtsx.docs.lib.JacksonUtils;
+import lombok.SneakyThrows;
 import lombok.val;
+import org.apache.commons.io.file.PathUtils;
 
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 public class PythonDriver extends ClientDriver {
+    /// Warm fork servers, keyed by execution environment directory (only used with `--python-worker`)
+    private final Map<Path, PythonWorker> workers = new ConcurrentHashMap<>();
+
+    private static final List<String> MYPY_FLAGS = List.of("--show-error-codes", "--pretty", "--show-column-numbers");
+
+    /// How long (in seconds) an environment's mypy daemon may sit idle before shutting itself down
+    private static final String DMYPY_IDLE_TIMEOUT = "600";
+
     public PythonDriver(String artifact) {
         super(artifact);
     }
@@ -44,9 +64,9 @@ public class PythonDriver extends ClientDriver {
             throw new RuntimeException("Failed to create Python virtual environment:\n" + mkVenv.output());
         }
 
-        replaceArtifactPlaceholder(execEnv, "requirements.txt");
+        replaceArtifactPlaceholder(ctx, execEnv, "requirements.txt");
 
-        val install = ExternalPrograms.custom().run(execEnv.envDir(), ".venv/bin/pip", "install", "-U", "-r", "requirements.txt", artifact());
+        val install = ExternalPrograms.custom().run(execEnv.envDir(), ".venv/bin/pip", "install", "-U", "-r", "requirements.txt", artifactToInstall(ctx));
         if (install.notOk()) {
             throw new RuntimeException("Failed to install Python dependencies:\n" + install.output());
         }
@@ -54,6 +74,86 @@ public class PythonDriver extends ClientDriver {
         return execEnv.envDir().resolve("example.py");
     }
 
+    // a mypy daemon per environment, so that compile-only tests are checked against a warm cache of astrapy's types
+    @Override
+    public void startExecutionEnvironment(BaseScriptRunnerCtx ctx, ExecutionEnvironment execEnv) {
+        val dmypy = ExternalPrograms.custom().run(execEnv.envDir(), dmypyArgs("restart"));
+        if (dmypy.notOk()) {
+            throw new RunException("Failed to start mypy daemon:\n" + dmypy.output());
+        }
+    }
+
+    // otherwise each daemon would only exit once it's been idle for DMYPY_IDLE_TIMEOUT
+    @Override
+    public void stopExecutionEnvironment(BaseScriptRunnerCtx ctx, ExecutionEnvironment execEnv) {
+        ExternalPrograms.custom().run(execEnv.envDir(), "./.venv/bin/python", "-m", "mypy.dmypy", "stop");
+    }
+
+    // the venv's scripts' shebangs point at the snapshot's venv, so its tools are only ever run via `.venv/bin/python -m`
+    @Override
+    public List<String> sharedDependencyDirs() {
+        return List.of(".venv");
+    }
+
+    /// The distribution name (plus any extras) at the start of a requirement specifier, e.g. `astrapy[extra]>=2`
+    private static final Pattern RequirementNamePattern = Pattern.compile("^[A-Za-z0-9._-]+(\\[[^\\]]*\\])?");
+
+    // wheels/sdists are identified by their contents; anything else by the distribution pip would download for it
+    @Override
+    @SneakyThrows
+    protected Optional<ResolvedArtifact> resolveArtifact(BaseScriptRunnerCtx ctx, String artifact) {
+        val localFile = ArtifactResolution.localFile(artifact);
+
+        if (localFile.isPresent()) {
+            return Optional.of(new ResolvedArtifact(artifact, ArtifactResolution.hashFiles(List.of(localFile.get()))));
+        }
+
+        val destDir = Files.createTempDirectory("docs-pip-resolve");
+
+        try {
+            val download = ExternalPrograms.python(ctx).run(destDir, "-m", "pip", "download", "--no-deps", "--quiet", "--dest", ".", artifact);
+
+            if (download.notOk()) {
+                return Optional.empty();
+            }
+
+            try (Stream<Path> files = Files.list(destDir)) {
+                return files.findFirst().flatMap((file) -> parseDistributionFile(artifact, file.getFileName().toString()));
+            }
+        } finally {
+            PathUtils.deleteDirectory(destDir);
+        }
+    }
+
+    // e.g. `astrapy-2.1.0-py3-none-any.whl` or `astrapy-2.1.0.tar.gz`
+    private static Optional<ResolvedArtifact> parseDistributionFile(String artifact, String fileName) {
+        final String name, version;
+
+        if (fileName.endsWith(".whl")) {
+            val parts = fileName.split("-");
+            name = parts[0];
+            version = parts[1];
+        } else {
+            val base = fileName.replaceFirst("\\.(tar\\.gz|zip)$", "");
+            val idx = base.lastIndexOf('-');
+
+            if (idx < 0) {
+                return Optional.empty();
+            }
+
+            name = base.substring(0, idx);
+            version = base.substring(idx + 1);
+        }
+
+        val requirement = RequirementNamePattern.matcher(artifact);
+
+        val extras = (requirement.find() && requirement.group(1) != null)
+            ? requirement.group(1)
+            : "";
+
+        return Optional.of(new ResolvedArtifact(name + extras + "==" + version, version));
+    }
+
     private static final Pattern DataAPIClientPattern = Pattern.compile("DataAPIClient\\(([^)]*?)\\)");
 
     @Override
@@ -84,15 +184,10 @@ public class PythonDriver extends ClientDriver {
             """ + content;
         }
 
-        val env = switch (ctx.connectionInfo().destination()) {
-            case ASTRA -> "prod";
-            case ASTRA_DEV -> "dev";
-            case ASTRA_TEST -> "test";
-            case DSE -> "dse";
-            case HCD -> "hcd";
-            case CASSANDRA -> "cassandra";
-            case OTHERS -> "other";
-        };
+        // the worker patches DataAPIClient itself, once
+        if (ctx.pythonWorker()) {
+            return content;
+        }
 
         content = """
         import astrapy as _astrapy_module
@@ -106,11 +201,23 @@ public class PythonDriver extends ClientDriver {
             return _original_init(self, *args, **kwargs)
         
         _astrapy_module.DataAPIClient.__init__ = patched_init
-        """.formatted(env) + content;
+        """.formatted(environment(ctx)) + content;
 
         return content;
     }
 
+    private static String environment(BaseScriptRunnerCtx ctx) {
+        return switch (ctx.connectionInfo().destination()) {
+            case ASTRA -> "prod";
+            case ASTRA_DEV -> "dev";
+            case ASTRA_TEST -> "test";
+            case DSE -> "dse";
+            case HCD -> "hcd";
+            case CASSANDRA -> "cassandra";
+            case OTHERS -> "other";
+        };
+    }
+
     @Override
     public List<?> preprocessToJson(BaseScriptRunnerCtx ctx, OutputJsonifySourceMeta meta, String content) {
         return JacksonUtils.parseJsonLines(content, Object.class);
@@ -118,11 +225,44 @@ public class PythonDriver extends ClientDriver {
 
     @Override
     public RunResult compileScript(BaseScriptRunnerCtx ctx, ExecutionEnvironment execEnv) {
-        return ExternalPrograms.custom().run(execEnv.envDir(), "./.venv/bin/python", "-m", "mypy", "example.py", "--show-error-codes", "--pretty", "--show-column-numbers");
+        return ExternalPrograms.custom().run(execEnv.envDir(), dmypyArgs("run", "example.py"));
+    }
+
+    // `run` transparently (re)starts the daemon if it's gone, e.g. after idling out
+    private static String[] dmypyArgs(String command, String... files) {
+        val args = new ArrayList<>(List.of("./.venv/bin/python", "-m", "mypy.dmypy", command, "--timeout", DMYPY_IDLE_TIMEOUT, "--"));
+        args.addAll(List.of(files));
+        args.addAll(MYPY_FLAGS);
+        return args.toArray(String[]::new);
+    }
+
+    // module names must be unique for mypy, hence the id in the file name
+    @Override
+    public Map<Path, RunResult> compileBatch(BaseScriptRunnerCtx ctx, ExecutionEnvironment execEnv, List<BatchFile> files) {
+        val batchDir = execEnv.envDir().resolve("batch");
+
+        return BatchCompilation.compile(batchDir, files, (id, file) -> {
+            return new Materialized("example_" + id + ".py", file.content());
+        }, (paths) -> {
+            val relPaths = paths.stream().map(path -> execEnv.envDir().relativize(path).toString()).toArray(String[]::new);
+            return ExternalPrograms.custom().run(execEnv.envDir(), dmypyArgs("run", relPaths));
+        });
     }
 
     @Override
     public RunResult executeScript(BaseScriptRunnerCtx ctx, ExecutionEnvironment execEnv, Map<String, String> envVars) {
+        if (ctx.pythonWorker()) {
+            return worker(ctx, execEnv).run(execEnv, envVars);
+        }
         return ExternalPrograms.custom().run(execEnv.envDir(), envVars, ".venv/bin/python", execEnv.scriptPath());
     }
+
+    // (re)starts the worker if it died
+    private PythonWorker worker(BaseScriptRunnerCtx ctx, ExecutionEnvironment execEnv) {
+        return workers.compute(execEnv.envDir(), (_, worker) -> {
+            return (worker != null && worker.isAlive())
+                ? worker
+                : PythonWorker.start(execEnv, environment(ctx));
+        });
+    }
 }
@@ -0,0 +1,33 @@
+package com.dtsx.docs.core.runner.drivers.impls;
+
+import com.dtsx.docs.core.runner.ExecutionEnvironment;
+import com.dtsx.docs.core.runner.RunException;
+import com.dtsx.docs.lib.ExternalPrograms;
+import com.dtsx.docs.lib.ExternalPrograms.RunResult;
+
+import java.io.IOException;
+import java.util.Map;
+
+/// A warm fork server which runs an execution environment's `example.py`.
+///
+/// Talks to `worker/example_worker.py` in the Python execution environment, which imports (and patches) astrapy once,
+/// then runs each example via `runpy` in a forked child so that crashes and `sys.exit` only affect that example.
+///
+/// One worker is used per execution environment, and requests are handled one at a time.
+final class PythonWorker extends WorkerProcess {
+    private PythonWorker(Process process) {
+        super("python-worker", process);
+    }
+
+    static PythonWorker start(ExecutionEnvironment execEnv, String environment) {
+        try {
+            return new PythonWorker(ExternalPrograms.custom().start(execEnv.envDir(), null, ".venv/bin/python", "worker/example_worker.py", environment));
+        } catch (IOException e) {
+            throw new RunException("Failed to start Python worker in " + execEnv.envDir(), e);
+        }
+    }
+
+    RunResult run(ExecutionEnvironment execEnv, Map<String, String> envVars) {
+        return request('R', execEnv.scriptPath(), envVars);
+    }
+}
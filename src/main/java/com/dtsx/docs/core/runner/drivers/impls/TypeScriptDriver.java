@@ -7,20 +7,34 @@ import com.dtsx.docs.core.runner.ExecutionEnvironment;
 import com.dtsx.docs.core.runner.ExecutionEnvironment.TestFileModifierFlags;
 import com.dtsx.docs.core.runner.ExecutionEnvironment.TestFileModifiers;
 import com.dtsx.docs.core.runner.RunException;
+import com.dtsx.docs.core.runner.drivers.ArtifactResolution;
+import com.dtsx.docs.core.runner.drivers.BatchCompilation;
+import com.dtsx.docs.core.runner.drivers.BatchCompilation.BatchFile;
+import com.dtsx.docs.core.runner.drivers.BatchCompilation.Materialized;
 import com.dtsx.docs.core.runner.drivers.ClientDriver;
 import com.dtsx.docs.core.runner.drivers.ClientLanguage;
 import com.dtsx.docs.lib.ExternalPrograms;
 import com.dtsx.docs.lib.ExternalPrograms.ExternalProgram;
 import com.dtsx.docs.lib.ExternalPrograms.RunResult;
 import com.dtsx.docs.lib.JacksonUtils;
+import lombok.SneakyThrows;
 import lombok.val;
 
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 public class TypeScriptDriver extends ClientDriver {
+    /// Warm type-checking services, keyed by execution environment directory (only used with `--ts-typecheck-service`)
+    private final Map<Path, TypeScriptTypechecker> typecheckers = new ConcurrentHashMap<>();
+
+    /// Warm example runners, keyed by execution environment directory (only used with `--ts-worker`)
+    private final Map<Path, TypeScriptWorker> workers = new ConcurrentHashMap<>();
+
     public TypeScriptDriver(String artifact) {
         super(artifact);
     }
@@ -32,12 +46,12 @@ public class TypeScriptDriver extends ClientDriver {
 
     @Override
     public List<Function<BaseCtx, ExternalProgram>> requiredPrograms() {
-        return List.of(ExternalPrograms::npm, ExternalPrograms::tsx);
+        return List.of(ExternalPrograms::npm, ExternalPrograms::tsx, ExternalPrograms::node);
     }
 
     @Override
     public Path setupExecutionEnvironment(BaseScriptRunnerCtx ctx, ExecutionEnvironment execEnv) {
-        val res = ExternalPrograms.npm(ctx).run(execEnv.envDir(), "install", artifact());
+        val res = ExternalPrograms.npm(ctx).run(execEnv.envDir(), "install", artifactToInstall(ctx));
 
         if (res.exitCode() != 0) {
             throw new RunException("Failed to setup TypeScript environment: " + res.output());
@@ -47,8 +61,43 @@ public class TypeScriptDriver extends ClientDriver {
     }
 
     @Override
-    public String preprocessScript(BaseScriptRunnerCtx ignoredCtx, String content, @TestFileModifierFlags int mods) {
-        if ((mods & TestFileModifiers.JSONIFY_OUTPUT) != 0) {
+    public List<String> sharedDependencyDirs() {
+        return List.of("node_modules");
+    }
+
+    // tarballs are identified by their contents; anything else by the version npm would install for it
+    @Override
+    protected Optional<ResolvedArtifact> resolveArtifact(BaseScriptRunnerCtx ctx, String artifact) {
+        val localFile = ArtifactResolution.localFile(artifact);
+
+        if (localFile.isPresent()) {
+            return Optional.of(new ResolvedArtifact(artifact, ArtifactResolution.hashFiles(List.of(localFile.get()))));
+        }
+
+        val res = ExternalPrograms.npm(ctx).run("view", artifact, "name", "version", "--json");
+
+        if (res.notOk() || res.stdout().isBlank()) {
+            return Optional.empty();
+        }
+
+        // a range matching several versions gives all of them, in ascending order
+        val json = JacksonUtils.parseJson(res.stdout(), Object.class);
+
+        val latest = (json instanceof List<?> list && !list.isEmpty())
+            ? list.getLast()
+            : json;
+
+        if (!(latest instanceof Map<?, ?> pkg) || !(pkg.get("name") instanceof String name) || !(pkg.get("version") instanceof String version)) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new ResolvedArtifact(name + "@" + version, version));
+    }
+
+    @Override
+    public String preprocessScript(BaseScriptRunnerCtx ctx, String content, @TestFileModifierFlags int mods) {
+        // the worker overrides console.log itself (see worker/example_thread.js)
+        if ((mods & TestFileModifiers.JSONIFY_OUTPUT) != 0 && !ctx.tsWorker()) {
             content = """
             const _log = console.log;
             
@@ -83,11 +132,60 @@ public class TypeScriptDriver extends ClientDriver {
 
     @Override
     public RunResult compileScript(BaseScriptRunnerCtx ctx, ExecutionEnvironment execEnv) {
+        if (ctx.tsTypecheckService()) {
+            return typechecker(ctx, execEnv).check(execEnv);
+        }
         return ExternalPrograms.npm(ctx).run(execEnv.envDir(), "run", "typecheck");
     }
 
+    // every file is forced to be its own module (even script-style ones without any `import`/`export`), so a single
+    // tsconfig extending the environment's one can check them all at once
+    @Override
+    public Map<Path, RunResult> compileBatch(BaseScriptRunnerCtx ctx, ExecutionEnvironment execEnv, List<BatchFile> files) {
+        val batchDir = execEnv.envDir().resolve("batch");
+
+        return BatchCompilation.compile(batchDir, files, (_, file) -> {
+            return new Materialized("example.ts", file.content());
+        }, (_) -> {
+            writeBatchTsConfig(batchDir);
+            return ExternalPrograms.custom().run(execEnv.envDir(), "node_modules/.bin/tsc", "--noEmit", "--pretty", "false", "-p", "batch/tsconfig.json");
+        });
+    }
+
+    @SneakyThrows
+    private static void writeBatchTsConfig(Path batchDir) {
+        Files.writeString(batchDir.resolve("tsconfig.json"), """
+        {
+          "extends": "../tsconfig.json",
+          "compilerOptions": { "moduleDetection": "force" },
+          "include": ["**/*.ts"]
+        }
+        """);
+    }
+
     @Override
     public RunResult executeScript(BaseScriptRunnerCtx ctx, ExecutionEnvironment execEnv, Map<String, String> envVars) {
+        if (ctx.tsWorker()) {
+            return worker(ctx, execEnv).run(execEnv, (execEnv.testFileModifiers() & TestFileModifiers.JSONIFY_OUTPUT) != 0, envVars);
+        }
         return ExternalPrograms.tsx(ctx).run(execEnv.envDir(), envVars, execEnv.scriptPath());
     }
+
+    // (re)starts the worker if it died
+    private TypeScriptWorker worker(BaseScriptRunnerCtx ctx, ExecutionEnvironment execEnv) {
+        return workers.compute(execEnv.envDir(), (_, worker) -> {
+            return (worker != null && worker.isAlive())
+                ? worker
+                : TypeScriptWorker.start(ctx, execEnv);
+        });
+    }
+
+    // (re)starts the service if it died
+    private TypeScriptTypechecker typechecker(BaseScriptRunnerCtx ctx, ExecutionEnvironment execEnv) {
+        return typecheckers.compute(execEnv.envDir(), (_, typechecker) -> {
+            return (typechecker != null && typechecker.isAlive())
+                ? typechecker
+                : TypeScriptTypechecker.start(ctx, execEnv);
+        });
+    }
 }
@@ -0,0 +1,33 @@
+package com.dtsx.docs.core.runner.drivers.impls;
+
+import com.dtsx.docs.config.ctx.BaseScriptRunnerCtx;
+import com.dtsx.docs.core.runner.ExecutionEnvironment;
+import com.dtsx.docs.core.runner.RunException;
+import com.dtsx.docs.lib.ExternalPrograms;
+import com.dtsx.docs.lib.ExternalPrograms.RunResult;
+
+import java.io.IOException;
+
+/// A warm type-checking service for an execution environment's `example.ts`.
+///
+/// Talks to `worker/typecheck.js` in the TypeScript execution environment, which keeps the parsed declaration files
+/// (the standard library's and the client's) around between checks, instead of re-parsing them for every example.
+///
+/// One service is used per execution environment, and requests are handled one at a time.
+final class TypeScriptTypechecker extends WorkerProcess {
+    private TypeScriptTypechecker(Process process) {
+        super("ts-typecheck", process);
+    }
+
+    static TypeScriptTypechecker start(BaseScriptRunnerCtx ctx, ExecutionEnvironment execEnv) {
+        try {
+            return new TypeScriptTypechecker(ExternalPrograms.node(ctx).start(execEnv.envDir(), null, "worker/typecheck.js"));
+        } catch (IOException e) {
+            throw new RunException("Failed to start TypeScript type-checking service in " + execEnv.envDir(), e);
+        }
+    }
+
+    RunResult check(ExecutionEnvironment execEnv) {
+        return request('C', execEnv.scriptPath());
+    }
+}
@@ -0,0 +1,36 @@
+package com.dtsx.docs.core.runner.drivers.impls;
+
+import com.dtsx.docs.config.ctx.BaseScriptRunnerCtx;
+import com.dtsx.docs.core.runner.ExecutionEnvironment;
+import com.dtsx.docs.core.runner.RunException;
+import com.dtsx.docs.lib.ExternalPrograms;
+import com.dtsx.docs.lib.ExternalPrograms.RunResult;
+
+import java.io.IOException;
+import java.util.Map;
+
+/// A warm Node process which runs an execution environment's `example.ts`.
+///
+/// Talks to `worker/example_worker.js` in the TypeScript execution environment, which transpiles each example once,
+/// then runs it in its own worker thread (with astra-db-ts already imported) so that each example gets a fresh module
+/// graph, and `process.exit` only affects that example.
+///
+/// One worker is used per execution environment, and requests are handled one at a time.
+final class TypeScriptWorker extends WorkerProcess {
+    private TypeScriptWorker(Process process) {
+        super("ts-worker", process);
+    }
+
+    static TypeScriptWorker start(BaseScriptRunnerCtx ctx, ExecutionEnvironment execEnv) {
+        try {
+            return new TypeScriptWorker(ExternalPrograms.node(ctx).start(execEnv.envDir(), null, "worker/example_worker.js"));
+        } catch (IOException e) {
+            throw new RunException("Failed to start TypeScript worker in " + execEnv.envDir(), e);
+        }
+    }
+
+    /// @param jsonify whether to print `console.log`'d values as JSON (see [ExecutionEnvironment.TestFileModifiers#JSONIFY_OUTPUT])
+    RunResult run(ExecutionEnvironment execEnv, boolean jsonify, Map<String, String> envVars) {
+        return request(jsonify ? 'J' : 'R', execEnv.scriptPath(), envVars);
+    }
+}
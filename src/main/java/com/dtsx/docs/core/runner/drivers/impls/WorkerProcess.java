@@ -0,0 +1,130 @@
+package com.dtsx.docs.core.runner.drivers.impls;
+
+import com.dtsx.docs.lib.CliLogger;
+import com.dtsx.docs.lib.JacksonUtils;
+import com.dtsx.docs.lib.ExternalPrograms.OutputLine;
+import com.dtsx.docs.lib.ExternalPrograms.RunResult;
+import com.dtsx.docs.lib.ExternalPrograms.StderrLine;
+import com.dtsx.docs.lib.ExternalPrograms.StdoutLine;
+import lombok.val;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/// A long-lived helper process (e.g. [JavaWorker]) which handles one request at a time over stdin/stdout:
+/// ```
+/// -> V {"KEY":"value",...}          (optional; environment variables for the next request only)
+/// -> <kind> /abs/path/to/example   (e.g. `C` to compile, `R` to run)
+/// <- O:<line>                      (a line printed to stdout)
+/// <- E:<line>                      (a line printed to stderr, or a compiler diagnostic)
+/// <- X:<exit code>                 (end of response)
+/// <- Q:                            (the example exited the process itself; its exit code is the example's)
+/// ```
+///
+/// Anything the process itself prints to stderr is only logged (at debug level).
+///
+/// Every started worker is tracked so that [#closeAll] can stop them once a run is over.
+public abstract class WorkerProcess {
+    private static final Set<WorkerProcess> liveWorkers = ConcurrentHashMap.newKeySet();
+
+    private final String name;
+    private final Process process;
+    private final BufferedWriter stdin;
+    private final BufferedReader stdout;
+
+    protected WorkerProcess(String name, Process process) {
+        this.name = name;
+        this.process = process;
+        this.stdin = new BufferedWriter(new OutputStreamWriter(process.getOutputStream()));
+        this.stdout = new BufferedReader(new InputStreamReader(process.getInputStream()));
+
+        liveWorkers.add(this);
+        process.onExit().thenRun(() -> liveWorkers.remove(this));
+
+        Thread.startVirtualThread(() -> {
+            try (val stderr = new BufferedReader(new InputStreamReader(process.getErrorStream()))) {
+                stderr.lines().forEach(line -> CliLogger.debug("[" + name + "] " + line));
+            } catch (IOException _) {}
+        });
+    }
+
+    boolean isAlive() {
+        return process.isAlive();
+    }
+
+    /// Stops every worker still running; drivers start new ones on demand if they're needed again.
+    public static void closeAll() {
+        for (val worker : liveWorkers) {
+            worker.process.destroy();
+        }
+        liveWorkers.clear();
+    }
+
+    protected RunResult request(char kind, String path) {
+        return request(kind, path, null);
+    }
+
+    /// @param envVars environment variables to set for just this request (null for none)
+    protected synchronized RunResult request(char kind, String path, @Nullable Map<String, String> envVars) {
+        val outputLines = new ArrayList<OutputLine>();
+        var exitRequested = false;
+
+        try {
+            if (envVars != null && !envVars.isEmpty()) {
+                stdin.write("V " + JacksonUtils.formatJsonCompact(envVars));
+                stdin.newLine();
+            }
+
+            stdin.write(kind + " " + path);
+            stdin.newLine();
+            stdin.flush();
+
+            String line;
+
+            while ((line = stdout.readLine()) != null) {
+                val payload = line.substring(Math.min(2, line.length()));
+
+                if (line.startsWith("X:")) {
+                    return new RunResult(Integer.parseInt(payload), outputLines);
+                }
+
+                if (line.startsWith("Q:")) {
+                    exitRequested = true;
+                    continue;
+                }
+
+                outputLines.add((line.startsWith("E:"))
+                    ? new StderrLine(payload + System.lineSeparator())
+                    : new StdoutLine(payload + System.lineSeparator()));
+            }
+        } catch (IOException e) {
+            outputLines.add(new StderrLine(e + System.lineSeparator()));
+        }
+
+        if (exitRequested) {
+            return new RunResult(awaitExitCode(), outputLines);
+        }
+
+        process.destroy();
+        outputLines.add(new StderrLine(name + " exited unexpectedly" + System.lineSeparator()));
+        return new RunResult(-1, outputLines);
+    }
+
+    private int awaitExitCode() {
+        try {
+            if (process.waitFor(10, TimeUnit.SECONDS)) {
+                return process.exitValue();
+            }
+        } catch (InterruptedException _) {
+            Thread.currentThread().interrupt();
+        }
+
+        process.destroy();
+        return -1;
+    }
+}
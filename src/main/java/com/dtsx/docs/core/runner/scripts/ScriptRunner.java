@@ -2,9 +2,11 @@ package com.dtsx.docs.core.runner.scripts;
 
 import com.dtsx.docs.commands.run.RunCtx;
 import com.dtsx.docs.core.runner.ExecutionEnvironment;
+import com.dtsx.docs.core.runner.ExecutionEnvironment.ExecutionEnvironments;
 import com.dtsx.docs.core.runner.ExecutionEnvironment.TestFileModifiers;
 import com.dtsx.docs.core.runner.PlaceholderResolver;
 import com.dtsx.docs.core.runner.drivers.ClientDriver;
+import com.dtsx.docs.core.runner.drivers.impls.WorkerProcess;
 import com.dtsx.docs.core.runner.scripts.reporter.ScriptReporter;
 import com.dtsx.docs.lib.CliLogger;
 import lombok.val;
@@ -26,22 +28,40 @@ public class ScriptRunner {
     }
 
     public static boolean runScripts(RunCtx ctx) {
-        return new ScriptRunner(ctx).runAllScripts();
+        try {
+            return new ScriptRunner(ctx).runAllScripts();
+        } finally {
+            WorkerProcess.closeAll();
+        }
     }
 
     private boolean runAllScripts() {
-        val execEnvs = ExecutionEnvironment.setup(ctx, scripts.keySet(), null);
+        val execEnvs = ExecutionEnvironment.setup(ctx, scripts.keySet());
+
+        try {
+            return runAllScripts(execEnvs);
+        } finally {
+            execEnvs.stopAll();
+        }
+    }
 
+    private boolean runAllScripts(ExecutionEnvironments execEnvs) {
         var allSucceeded = true;
 
         for (val entry : ctx.scripts().entrySet()) {
             val driver = entry.getKey();
             val scripts = entry.getValue();
 
-            val execEnv = execEnvs.forLanguage(driver.language());
-
             for (val script : scripts) {
-                val success = runScript(driver, execEnv, script);
+                val execEnv = execEnvs.acquire(driver.language());
+
+                final boolean success;
+
+                try {
+                    success = runScript(driver, execEnv, script);
+                } finally {
+                    execEnvs.release(execEnv);
+                }
 
                 if (success) {
                     continue;
@@ -0,0 +1,95 @@
+package com.dtsx.docs.core.runner.tests;
+
+import com.dtsx.docs.config.ctx.BaseCtx;
+import com.dtsx.docs.core.planner.TestRoot;
+import com.dtsx.docs.core.runner.drivers.ClientLanguage;
+import com.dtsx.docs.lib.CliLogger;
+import com.dtsx.docs.lib.JacksonUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+import tools.jackson.core.type.TypeReference;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/// Per-root, per-language test durations persisted between runs, used to schedule the slowest work first.
+///
+/// Stored in `.docs_tests_temp/durations.json`:
+/// ```json
+/// {
+///   "create-table": { "JAVA": 9120, "TYPESCRIPT": 3400 },
+///   "find-many": { "JAVA": 4100 }
+/// }
+/// ```
+///
+/// New measurements are averaged with the previous one to smooth out noisy runs.
+@RequiredArgsConstructor
+public class DurationHistory {
+    private final Path file;
+    private final ConcurrentHashMap<String, ConcurrentHashMap<ClientLanguage, Long>> durations;
+
+    /// Loads the history from the temp folder, starting empty if it doesn't exist or can't be read.
+    public static DurationHistory load(BaseCtx ctx) {
+        return load(ctx.tmpFolder().resolve("durations.json"));
+    }
+
+    /// Loads the history from the given file (e.g. a `--durations-file` shared between shards), starting empty if it doesn't exist or can't be read.
+    public static DurationHistory load(Path file) {
+        val durations = new ConcurrentHashMap<String, ConcurrentHashMap<ClientLanguage, Long>>();
+
+        if (Files.exists(file)) {
+            try {
+                val raw = JacksonUtils.parseJson(Files.readString(file), Map.class);
+
+                JacksonUtils.convertValue(raw, new TypeReference<Map<String, Map<ClientLanguage, Long>>>() {}).forEach((root, langs) -> {
+                    durations.put(root, new ConcurrentHashMap<>(langs));
+                });
+            } catch (Exception e) {
+                CliLogger.exception("Failed to read test durations from '" + file + "'; scheduling without history", e);
+            }
+        }
+
+        return new DurationHistory(file, durations);
+    }
+
+    /// Records how long a language's tests took in a test root.
+    public void record(TestRoot testRoot, ClientLanguage language, long durationMs) {
+        durations
+            .computeIfAbsent(testRoot.rootName(), _ -> new ConcurrentHashMap<>())
+            .merge(language, durationMs, (prev, next) -> (prev + next) / 2);
+    }
+
+    /// Estimates how long a group of test roots (e.g. a base fixture pool) will take, using the mean known duration for languages without history.
+    ///
+    /// @return the estimate in ms, or 0 if there's no history at all (so that the plan order is kept)
+    public long estimate(Collection<TestRoot> testRoots) {
+        val fallback = (long) durations.values().stream()
+            .flatMap(m -> m.values().stream())
+            .mapToLong(Long::longValue)
+            .average()
+            .orElse(0);
+
+        return testRoots.stream().mapToLong(root -> estimate(root, fallback)).sum();
+    }
+
+    private long estimate(TestRoot testRoot, long fallback) {
+        val known = durations.get(testRoot.rootName());
+
+        return testRoot.filesToTest().keySet().stream()
+            .mapToLong(lang -> (known != null && known.containsKey(lang)) ? known.get(lang) : fallback)
+            .sum();
+    }
+
+    /// Writes the history back to the temp folder. Failures are logged but otherwise ignored.
+    public void save() {
+        try {
+            Files.createDirectories(file.getParent());
+            Files.writeString(file, JacksonUtils.formatJsonPretty(durations));
+        } catch (Exception e) {
+            CliLogger.exception("Failed to save test durations to '" + file + "'", e);
+        }
+    }
+}
@@ -2,18 +2,32 @@ package com.dtsx.docs.core.runner.tests;
 
 import com.dtsx.docs.commands.test.TestCtx;
 import com.dtsx.docs.core.planner.TestPlan;
+import com.dtsx.docs.core.planner.TestRoot;
+import com.dtsx.docs.core.planner.fixtures.BaseFixturePool;
 import com.dtsx.docs.core.planner.fixtures.JSFixture;
+import com.dtsx.docs.core.planner.fixtures.KeptFixtures;
 import com.dtsx.docs.core.runner.ExecutionEnvironment;
+import com.dtsx.docs.core.runner.ExecutionEnvironment.ExecutionEnvironments;
 import com.dtsx.docs.core.runner.drivers.ClientDriver;
 import com.dtsx.docs.core.runner.drivers.ClientLanguage;
+import com.dtsx.docs.core.runner.drivers.impls.WorkerProcess;
+import com.dtsx.docs.core.runner.tests.results.ShardResults;
 import com.dtsx.docs.core.runner.tests.results.TestResults;
+import com.dtsx.docs.core.runner.tests.results.TestRootResults;
+import com.dtsx.docs.core.runner.tests.strategies.test.CompileBatch;
+import com.dtsx.docs.core.runner.tests.strategies.test.SnapshotPrecompiler;
 import com.dtsx.docs.lib.CliLogger;
+import com.dtsx.docs.lib.DataAPIUtils;
 import com.dtsx.docs.lib.ExternalPrograms;
 import com.dtsx.docs.lib.ExternalPrograms.ExternalProgram;
+import com.dtsx.docs.lib.JqFilters;
+import lombok.SneakyThrows;
 import lombok.val;
+import org.apache.commons.lang3.tuple.Pair;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class TestRunner {
     private final TestCtx ctx;
@@ -21,10 +35,20 @@ public class TestRunner {
     private final TestPlan plan;
     private final Map<ClientLanguage, ClientDriver> drivers;
 
+    /// Only present with `--keep-fixtures`, in which case base fixtures are only set up when needed, and never torn down.
+    private final Optional<KeptFixtures> keptFixtures;
+
+    /// Set when a pool fails or `--bail` trips, so that pools which haven't started yet are skipped,
+    /// and pools which are already running stop after their current test root.
+    private final AtomicBoolean stopRequested = new AtomicBoolean(false);
+
     private TestRunner(TestCtx ctx, TestPlan plan) {
         this.ctx = ctx;
         this.tsx = ExternalPrograms.tsx(ctx);
         this.plan = plan;
+        this.keptFixtures = (ctx.keepFixtures() && ctx.verifyMode() != VerifyMode.DRY_RUN)
+            ? Optional.of(KeptFixtures.load(ctx))
+            : Optional.empty();
 
         this.drivers = new HashMap<>() {{
             ctx.drivers().forEach((lang, driver) -> {
@@ -42,53 +66,199 @@ public class TestRunner {
     // Don't love using exceptions for control flow, but eh, keeps it simple here
     private static class BailException extends RuntimeException {}
 
+    /// The results of a single test root, handed from the thread running its pool to the reporting thread.
+    private record RootRun(TestRootResults result, long duration) {}
+
+    /// A pool scheduled on the pool executor. Results are streamed through `results`, with an empty element marking the end of the pool.
+    private record PoolRun(BaseFixturePool pool, BlockingQueue<Optional<RootRun>> results, CompletableFuture<Void> future) {}
+
+    /// Everything which is set up in the background while the pools start, so that the first base fixture's `Setup`
+    /// overlaps with installing the fixtures' dependencies, setting up the execution environments, and precompiling.
+    ///
+    /// @param fixtureDeps must be done before any fixture runs
+    /// @param precompiled per language; a test root only waits on those for the languages it tests
+    private record Background(CompletableFuture<Void> fixtureDeps, Map<ClientLanguage, CompletableFuture<Void>> precompiled) {}
+
     private boolean runAllTests() {
-        val execEnvs = ExecutionEnvironment.setup(ctx, drivers.values(), () -> {
-            JSFixture.installDependencies(ctx);
-        });
+        val execEnvs = ExecutionEnvironment.setup(ctx, drivers.values(), ctx.envReplicas());
+
+        val background = new Background(
+            CompletableFuture.runAsync(() -> JSFixture.installDependencies(ctx), Thread::startVirtualThread),
+            precompileAll(execEnvs)
+        );
 
         val history = new TestResults();
 
         ctx.reporter().printHeader(plan);
 
-        try {
+        // pools are started longest-first (per the duration history) when several run at once, and in plan order otherwise
+        try (val executor = Executors.newFixedThreadPool(ctx.poolParallelism(), Thread.ofVirtual().factory())) {
+            val runs = new ArrayList<PoolRun>();
+            val scheduled = new ArrayList<Pair<PoolRun, SortedSet<TestRoot>>>();
+            val estimates = new IdentityHashMap<PoolRun, Long>();
+
             plan.forEachPool((pool, testRoots) -> {
-                ctx.reporter().printBaseFixtureHeading(pool.fixture(), history);
-                
-                try {
-                    pool.setup(tsx);
-
-                    for (val testRoot : testRoots) {
-                        try {
-                            val adaptedPool = testRoot.testStrategy().slicePool(testRoot, pool);
-
-                            val startTime = System.currentTimeMillis();
-                            val result = testRoot.testStrategy().runTestsInRoot(tsx, testRoot, execEnvs, adaptedPool);
-                            val duration = System.currentTimeMillis() - startTime;
-
-                            ctx.reporter().printTestRootResults(pool.fixture(), result, history, duration);
-                            history.add(pool.fixture(), result);
-                            
-                            if (ctx.bail() && !result.allPassed()) {
-                                throw new BailException();
-                            }
-                        } catch (Exception e) {
-                            CliLogger.exception("Error running tests in test root '" + testRoot.rootName() + "' (" + e.getClass().getSimpleName() + ")");
-                            throw e;
-                        }
+                val run = new PoolRun(pool, new LinkedBlockingQueue<>(), new CompletableFuture<>());
+                runs.add(run);
+                scheduled.add(Pair.of(run, testRoots));
+                estimates.put(run, ctx.durationHistory().estimate(testRoots));
+            });
+
+            // run one at a time, the order can't shorten the run, and plan order lets results be reported as they finish
+            // (stable sort, so pools without any history keep their plan order)
+            if (ctx.poolParallelism() > 1) {
+                scheduled.sort(Comparator.comparing((Pair<PoolRun, SortedSet<TestRoot>> p) -> estimates.get(p.getLeft())).reversed());
+            }
+
+            for (val entry : scheduled) {
+                val run = entry.getLeft();
+
+                executor.submit(() -> {
+                    try {
+                        runPool(run.pool(), entry.getRight(), execEnvs, background, run.results());
+                        run.future().complete(null);
+                    } catch (Throwable e) {
+                        run.future().completeExceptionally(e);
                     }
-                } catch (Exception e) {
-                    throw new RuntimeException(e);
-                } finally {
-                    pool.teardown(tsx);
+                });
+            }
+
+            try {
+                // reporting always happens in plan order, regardless of which pools finish first
+                for (val run : runs) {
+                    reportPool(run, history);
                 }
-            });
 
-            return history.allPassed();
-        } catch (BailException e) {
-            return false;
+                return history.allPassed();
+            } catch (BailException e) {
+                return false;
+            } finally {
+                stopRequested.set(true); // no-op if every pool already finished
+            }
         } finally {
+            // neither actually runs compile-only tests (or, for dry runs, anything), so their durations would look near-free
+            if (ctx.verifyMode() != VerifyMode.DRY_RUN && ctx.verifyMode() != VerifyMode.NO_COMPILE_ONLY) {
+                ctx.durationHistory().save();
+            }
+
+            JSFixture.stopHosts();
+            WorkerProcess.closeAll();
+            execEnvs.stopAll();
+            DataAPIUtils.clearCache();
+            JqFilters.closeAll();
             ctx.reporter().printSummary(plan, history);
+
+            ctx.resultsFile().ifPresent((file) -> {
+                ShardResults.from(ctx.shard().orElse(null), plan, history).write(file);
+                CliLogger.println(true, "@!-!@ Results written to @!" + file + "!@");
+            });
+        }
+    }
+
+    private Map<ClientLanguage, CompletableFuture<Void>> precompileAll(ExecutionEnvironments execEnvs) {
+        val precompiled = new EnumMap<ClientLanguage, CompletableFuture<Void>>(ClientLanguage.class);
+
+        for (val lang : drivers.keySet()) {
+            precompiled.put(lang, CompletableFuture.runAsync(() -> {
+                if (ctx.batchCompile()) {
+                    CompileBatch.compile(ctx, plan, execEnvs, lang);
+                }
+
+                SnapshotPrecompiler.precompile(ctx, plan, execEnvs, lang);
+            }, Thread::startVirtualThread));
+        }
+
+        return precompiled;
+    }
+
+    private void runPool(BaseFixturePool pool, SortedSet<TestRoot> testRoots, ExecutionEnvironments execEnvs, Background background, BlockingQueue<Optional<RootRun>> results) {
+        try {
+            if (stopRequested.get()) {
+                return;
+            }
+
+            // no need to set up the base fixture if nothing in the pool will actually run and use it (e.g. compile-only
+            // roots slice it down to nothing, so their setup doesn't need to wait on the batch compilation to be skipped)
+            val needsPool = testRoots.stream().anyMatch(r -> !r.testStrategy().fullyCached(r) && r.testStrategy().slicePool(r, pool).size() > 0);
+
+            try {
+                if (needsPool) {
+                    await(background.fixtureDeps());
+
+                    if (keptFixtures.isPresent()) {
+                        keptFixtures.get().setup(tsx, pool);
+                    } else {
+                        pool.setup(tsx);
+                    }
+                }
+
+                for (val testRoot : testRoots) {
+                    if (stopRequested.get()) {
+                        break;
+                    }
+
+                    try {
+                        for (val lang : testRoot.filesToTest().keySet()) {
+                            await(background.precompiled().getOrDefault(lang, CompletableFuture.completedFuture(null)));
+                        }
+
+                        val adaptedPool = testRoot.testStrategy().slicePool(testRoot, pool);
+
+                        val startTime = System.currentTimeMillis();
+                        val result = testRoot.testStrategy().runTestsInRoot(tsx, testRoot, execEnvs, adaptedPool);
+                        val duration = System.currentTimeMillis() - startTime;
+
+                        results.add(Optional.of(new RootRun(result, duration)));
+
+                        if (ctx.bail() && !result.allPassed()) {
+                            stopRequested.set(true);
+                        }
+                    } catch (Exception e) {
+                        CliLogger.exception("Error running tests in test root '" + testRoot.rootName() + "' (" + e.getClass().getSimpleName() + ")");
+                        stopRequested.set(true);
+                        throw e;
+                    }
+                }
+            } finally {
+                if (needsPool && keptFixtures.isEmpty()) {
+                    pool.teardown(tsx);
+                }
+            }
+        } finally {
+            results.add(Optional.empty());
+        }
+    }
+
+    // rethrows whatever the background task failed with as-is
+    private static void await(CompletableFuture<Void> task) {
+        try {
+            task.join();
+        } catch (CompletionException e) {
+            throw (e.getCause() instanceof RuntimeException re) ? re : e;
+        }
+    }
+
+    @SneakyThrows
+    private void reportPool(PoolRun run, TestResults history) {
+        val fixture = run.pool().fixture();
+
+        ctx.reporter().printBaseFixtureHeading(fixture, history);
+
+        for (var next = run.results().take(); next.isPresent(); next = run.results().take()) {
+            val rootRun = next.get();
+
+            ctx.reporter().printTestRootResults(fixture, rootRun.result(), history, rootRun.duration());
+            history.add(fixture, rootRun.result());
+
+            if (ctx.bail() && !rootRun.result().allPassed()) {
+                throw new BailException();
+            }
+        }
+
+        try {
+            run.future().get();
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
         }
     }
 }
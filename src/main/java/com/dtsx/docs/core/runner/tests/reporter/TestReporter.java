@@ -209,6 +209,7 @@ public abstract class TestReporter {
     private String outputPrefix(TestOutcome outcome) {
         return switch (outcome) {
             case Passed _ -> "@|green ✓|@";
+            case CachedPassed _ -> "@|faint,green ✓|@";
             case DryPassed _ -> "@!?!@";
             case FailedToVerify _, FailedToCompile _ -> "@|red ✗|@";
             case Mismatch _ -> "@|red M|@";
@@ -0,0 +1,103 @@
+package com.dtsx.docs.core.runner.tests.results;
+
+import com.dtsx.docs.core.planner.TestPlan;
+import com.dtsx.docs.core.runner.drivers.ClientLanguage;
+import com.dtsx.docs.lib.JacksonUtils;
+import lombok.SneakyThrows;
+import lombok.val;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.SortedSet;
+
+/// The results of a (possibly sharded) test run, written with `test --results-file` so that shards run on
+/// different machines can be combined with `merge-results`.
+///
+/// Example:
+/// ```json
+/// {
+///   "shard": "2/3",
+///   "plannedFiles": ["find-many/java/src/main/java/Example.java", ...],
+///   "unshardedTests": 41,
+///   "unshardedPlanHash": "3f1c...e9a0",
+///   "results": [
+///     { "baseFixture": "basic-table.js", "testRoot": "find-many", "language": "JAVA", "file": "find-many/java/src/main/java/Example.java", "outcome": "Passed", "passed": true }
+///   ]
+/// }
+/// ```
+///
+/// `plannedFiles` may outnumber the results if the run bailed early. `unshardedTests` and `unshardedPlanHash` describe
+/// the plan before it was sharded, so that `merge-results` can tell if the shards given to it cover all of it.
+public record ShardResults(@Nullable String shard, List<String> plannedFiles, int unshardedTests, String unshardedPlanHash, List<Entry> results) {
+    public record Entry(String baseFixture, String testRoot, ClientLanguage language, String file, String outcome, boolean passed) {}
+
+    public static ShardResults from(@Nullable TestPlan.Shard shard, TestPlan plan, TestResults history) {
+        val entries = new ArrayList<Entry>();
+
+        history.unwrap().forEach((fixture, rootResults) -> {
+            for (val rootResult : rootResults) {
+                val testRoot = rootResult.testRoot();
+
+                rootResult.outcomes().forEach((language, outcomes) -> {
+                    outcomes.forEach((file, outcome) -> {
+                        entries.add(new Entry(fixture.fixtureName(), testRoot.rootName(), language, testRoot.displayPath(file), outcome.name(), outcome.passed()));
+                    });
+                });
+            }
+        });
+
+        return new ShardResults(
+            (shard != null) ? shard.toString() : null,
+            List.copyOf(plan.testFiles()),
+            plan.unshardedTestFiles().size(),
+            planHash(plan.unshardedTestFiles()),
+            entries
+        );
+    }
+
+    /// Hashes a set of test files, so that shards can be checked to come from (and together cover) the same plan.
+    @SneakyThrows
+    public static String planHash(SortedSet<String> testFiles) {
+        val md = MessageDigest.getInstance("SHA-256");
+
+        for (val file : testFiles) {
+            md.update(file.getBytes(StandardCharsets.UTF_8));
+            md.update((byte) 0);
+        }
+
+        return HexFormat.of().formatHex(md.digest());
+    }
+
+    @SneakyThrows
+    public static ShardResults read(Path file) {
+        return JacksonUtils.parseJson(Files.readString(file), ShardResults.class);
+    }
+
+    @SneakyThrows
+    public void write(Path file) {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Files.writeString(file, JacksonUtils.formatJsonPretty(this));
+    }
+
+    public int plannedTests() {
+        return plannedFiles.size();
+    }
+
+    public int passedTests() {
+        return (int) results.stream().filter(Entry::passed).count();
+    }
+
+    public int failedTests() {
+        return results.size() - passedTests();
+    }
+
+    public int bailedTests() {
+        return Math.max(plannedTests() - results.size(), 0);
+    }
+}
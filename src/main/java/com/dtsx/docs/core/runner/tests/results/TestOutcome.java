@@ -19,13 +19,20 @@ public sealed interface TestOutcome {
     }
 
     default boolean passed() {
-        return this instanceof Passed || this instanceof DryPassed;
+        return this instanceof Passed || this instanceof CachedPassed || this instanceof DryPassed;
     }
 
     enum Passed implements TestOutcome {
         INSTANCE
     }
 
+    /// Passed in a previous run, with none of its inputs having changed since.
+    ///
+    /// @see com.dtsx.docs.core.runner.tests.snapshots.verifier.VerificationCache
+    enum CachedPassed implements TestOutcome {
+        INSTANCE
+    }
+
     enum DryPassed implements TestOutcome {
         INSTANCE
     }
@@ -5,12 +5,14 @@ import com.dtsx.docs.core.planner.PlanException;
 import com.dtsx.docs.core.planner.fixtures.FixtureMetadata;
 import com.dtsx.docs.core.runner.PlaceholderVars;
 import com.dtsx.docs.core.runner.drivers.ClientDriver;
+import com.dtsx.docs.core.runner.tests.snapshots.sources.schema.SchemaIntrospection;
 import com.dtsx.docs.core.runner.tests.snapshots.verifier.Snapshot.SnapshotPart;
 import com.dtsx.docs.core.runner.tests.snapshots.sources.output.OutputCaptureSource;
 import com.dtsx.docs.core.runner.tests.snapshots.sources.records.RecordSource;
 import com.dtsx.docs.lib.ExternalPrograms.RunResult;
 import lombok.EqualsAndHashCode;
 import lombok.RequiredArgsConstructor;
+import org.approvaltests.core.Scrubber;
 
 import java.util.Optional;
 import java.util.function.Supplier;
@@ -19,11 +21,22 @@ import java.util.function.Supplier;
 public abstract class SnapshotSource implements Comparable<SnapshotSource> {
     protected final String name;
 
-    public SnapshotPart mkSnapshot(TestCtx ctx, ClientDriver driver, RunResult res, FixtureMetadata md) {
-        return new SnapshotPart(name, mkSnapshotImpl(ctx, driver, res, md));
+    public SnapshotPart mkSnapshot(TestCtx ctx, ClientDriver driver, RunResult res, FixtureMetadata md, SchemaIntrospection schema, Scrubber scrubber) {
+        return new SnapshotPart(name, mkSnapshotImpl(ctx, driver, res, md, schema, scrubber));
     }
 
-    protected abstract String mkSnapshotImpl(TestCtx ctx, ClientDriver driver, RunResult res, FixtureMetadata md);
+    /// Whether the source reads schema (e.g. table definitions or collection names), which may still be settling right
+    /// after the example ran.
+    ///
+    /// Such sources are only evaluated once every other source is done, and read the schema through [SchemaIntrospection],
+    /// which waits for it to stop changing.
+    ///
+    /// @return true if the source needs settled schema
+    public boolean needsSettledSchema() {
+        return false;
+    }
+
+    protected abstract String mkSnapshotImpl(TestCtx ctx, ClientDriver driver, RunResult res, FixtureMetadata md, SchemaIntrospection schema, Scrubber scrubber);
 
     @Override
     public int compareTo(SnapshotSource other) {
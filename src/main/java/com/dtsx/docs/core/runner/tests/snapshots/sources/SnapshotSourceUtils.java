@@ -4,11 +4,11 @@ import com.dtsx.docs.core.planner.PlanException;
 import com.dtsx.docs.core.planner.fixtures.FixtureMetadata;
 import com.dtsx.docs.core.runner.drivers.ClientDriver;
 import com.dtsx.docs.core.runner.drivers.ClientLanguage;
-import com.dtsx.docs.core.runner.tests.snapshots.verifier.SnapshotVerifier;
 import com.dtsx.docs.lib.ExternalPrograms.RunResult;
 import lombok.experimental.UtilityClass;
 import lombok.val;
 import org.apache.commons.lang3.tuple.Pair;
+import org.approvaltests.core.Scrubber;
 
 import java.util.*;
 import java.util.function.Supplier;
@@ -33,61 +33,20 @@ public class SnapshotSourceUtils {
     // Any deeper lists would already be returned deterministically by the Data API
     //
     // Any deeper maps will be sorted by SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS
-    public static List<?> mkJsonDeterministic(List<?> records) {
-        return (List<?>) mkJsonDeterministic((Object) records);
+    //
+    // Strings the test root's scrubber would change are sorted as equals, since their values differ between runs
+    public static List<?> mkJsonDeterministic(List<?> records, Scrubber scrubber) {
+        return (List<?>) mkJsonDeterministic((Object) records, scrubber);
     }
 
-    public static Object mkJsonDeterministic(Object obj) {
-        if (obj == null) {
-            return null;
-        }
-
-        return switch (obj) {
-            case Map<?, ?> map -> {
-                if (map.size() == 1) {
-                    if (map.containsKey("$binary") || map.containsKey("_vector") || map.containsKey("embeddings")) {
-                        yield "vector_or_binary";
-                    }
-
-                    if (map.containsKey("$date")) {
-                        yield "date";
-                    }
-                }
-
-                var result = new LinkedHashMap<>();
-                map.entrySet().stream()
-                    .map(e -> Pair.of(
-                        mkJsonDeterministic(e.getKey()),
-                        mkJsonDeterministic(e.getValue())
-                    ))
-                    .sorted(Comparator.comparing(p -> calcSortValue(p.getLeft()), Comparator.nullsFirst(Integer::compareTo)))
-                    .forEach(p -> result.put(p.getLeft(), p.getRight()));
-                yield result;
-            }
-            case Collection<?> coll -> {
-                if (coll instanceof List<?> list && list.size() == 1024) {
-                    if (list.stream().allMatch(e -> e instanceof Double)) {
-                        yield "vector_or_binary";
-                    }
-                }
+    public static Object mkJsonDeterministic(Object obj, Scrubber scrubber) {
+        return normalize(obj, scrubber).value();
+    }
 
-                yield coll.stream()
-                    .map(SnapshotSourceUtils::mkJsonDeterministic)
-                    .sorted(Comparator.comparing(SnapshotSourceUtils::calcSortValue, Comparator.nullsFirst(Integer::compareTo)))
-                    .toList();
-            }
-            case Number num -> {
-                if (num instanceof Float || num instanceof Double) {
-                    if (num.doubleValue() % 1 == 0) {
-                        yield num.longValue();
-                    }
-                }
-                yield num;
-            }
-            default -> {
-                yield obj;
-            }
-        };
+    /// Like [#mkJsonDeterministic(Object, Scrubber)], but also returns the value's sort value, so that callers can sort
+    /// many normalized values exactly like `mkJsonDeterministic` would without holding them all in memory.
+    public static Normalized normalize(Object obj, Scrubber scrubber) {
+        return new Normalizer(scrubber).normalize(obj);
     }
 
     public static void recursivelyPrintTypes(Object obj, String indent) {
@@ -110,36 +69,102 @@ public class SnapshotSourceUtils {
         }
     }
 
-    private static int calcSortValue(Object obj) {
-        if (obj == null) {
-            return 0;
+    /// A normalized value along with the key it's sorted by when inside a map or collection.
+    public record Normalized(Object value, int sortValue) {}
+
+    /// Normalizes a tree bottom-up, so each node's sort value is computed exactly once from its (already normalized)
+    /// children, instead of being recomputed for the whole subtree on every comparison.
+    ///
+    /// Sort values are otherwise the same as ever (so existing snapshots keep their order):
+    /// - maps: the sum of `key ^ value` over their entries
+    /// - collections: the sum of their elements
+    /// - strings: `0` if the test root's scrubber (including its `snapshots.scrub` rules) would change them, otherwise their hash code
+    /// - anything else: its hash code
+    private static final class Normalizer {
+        private final Scrubber scrubber;
+        private final Map<String, Integer> stringSortValues = new HashMap<>();
+
+        private Normalizer(Scrubber scrubber) {
+            this.scrubber = scrubber;
         }
 
-        return switch (obj) {
-            case Map<?, ?> map -> {
-                yield map.entrySet().stream()
-                    .mapToInt(e -> calcSortValue(e.getKey()) ^ calcSortValue(e.getValue()))
-                    .sum();
-            }
-            case List<?> list -> {
-                yield list.stream()
-                    .mapToInt(SnapshotSourceUtils::calcSortValue)
-                    .sum();
+        public Normalized normalize(Object obj) {
+            if (obj == null) {
+                return new Normalized(null, 0);
             }
-            case Set<?> set -> {
-                yield set.stream()
-                    .mapToInt(SnapshotSourceUtils::calcSortValue)
-                    .sum();
-            }
-            case String str -> {
-                if (!SnapshotVerifier.SCRUBBER.scrub(str).equals(str)) {
-                    yield 0;
+
+            return switch (obj) {
+                case Map<?, ?> map -> {
+                    if (map.size() == 1) {
+                        if (map.containsKey("$binary") || map.containsKey("_vector") || map.containsKey("embeddings")) {
+                            yield leaf("vector_or_binary");
+                        }
+
+                        if (map.containsKey("$date")) {
+                            yield leaf("date");
+                        }
+                    }
+
+                    val entries = new ArrayList<Pair<Normalized, Normalized>>(map.size());
+                    var sortValue = 0;
+
+                    for (val e : map.entrySet()) {
+                        val key = normalize(e.getKey());
+                        val value = normalize(e.getValue());
+
+                        entries.add(Pair.of(key, value));
+                        sortValue += key.sortValue() ^ value.sortValue();
+                    }
+
+                    entries.sort(Comparator.comparingInt(p -> p.getLeft().sortValue()));
+
+                    val result = new LinkedHashMap<>();
+                    entries.forEach(p -> result.put(p.getLeft().value(), p.getRight().value()));
+                    yield new Normalized(result, sortValue);
                 }
-                yield str.hashCode();
-            }
-            default -> {
-                yield obj.hashCode();
+                case Collection<?> coll -> {
+                    if (coll instanceof List<?> list && list.size() == 1024) {
+                        if (list.stream().allMatch(e -> e instanceof Double)) {
+                            yield leaf("vector_or_binary");
+                        }
+                    }
+
+                    val items = new ArrayList<Normalized>(coll.size());
+                    var sortValue = 0;
+
+                    for (val item : coll) {
+                        val normalized = normalize(item);
+
+                        items.add(normalized);
+                        sortValue += normalized.sortValue();
+                    }
+
+                    items.sort(Comparator.comparingInt(Normalized::sortValue));
+                    yield new Normalized(items.stream().map(Normalized::value).toList(), sortValue);
+                }
+                case Number num -> {
+                    if (num instanceof Float || num instanceof Double) {
+                        if (num.doubleValue() % 1 == 0) {
+                            yield leaf(num.longValue());
+                        }
+                    }
+                    yield leaf(num);
+                }
+                default -> {
+                    yield leaf(obj);
+                }
+            };
+        }
+
+        private Normalized leaf(Object value) {
+            if (value instanceof String str) {
+                // scrubbing is by far the most expensive part, and many strings (e.g. field values) repeat
+                val sortValue = stringSortValues.computeIfAbsent(str, (s) -> {
+                    return (scrubber.scrub(s).equals(s)) ? s.hashCode() : 0;
+                });
+                return new Normalized(str, sortValue);
             }
-        };
+            return new Normalized(value, value.hashCode());
+        }
     }
 }
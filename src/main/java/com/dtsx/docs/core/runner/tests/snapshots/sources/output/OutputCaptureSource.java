@@ -5,7 +5,9 @@ import com.dtsx.docs.core.planner.fixtures.FixtureMetadata;
 import com.dtsx.docs.core.runner.drivers.ClientDriver;
 import com.dtsx.docs.core.runner.tests.snapshots.sources.SnapshotSource;
 import com.dtsx.docs.core.runner.tests.snapshots.sources.SnapshotSourceUtils;
+import com.dtsx.docs.core.runner.tests.snapshots.sources.schema.SchemaIntrospection;
 import com.dtsx.docs.lib.ExternalPrograms.RunResult;
+import org.approvaltests.core.Scrubber;
 
 public class OutputCaptureSource extends SnapshotSource {
     public OutputCaptureSource(String name, Void ignored) {
@@ -13,7 +15,7 @@ public class OutputCaptureSource extends SnapshotSource {
     }
 
     @Override
-    public String mkSnapshotImpl(TestCtx ctx, ClientDriver driver, RunResult res, FixtureMetadata md) {
+    public String mkSnapshotImpl(TestCtx ctx, ClientDriver driver, RunResult res, FixtureMetadata md, SchemaIntrospection schema, Scrubber scrubber) {
         return SnapshotSourceUtils.extractOutput(name, res);
     }
 }
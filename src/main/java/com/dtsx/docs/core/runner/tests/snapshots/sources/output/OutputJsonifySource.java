@@ -6,16 +6,34 @@ import com.dtsx.docs.core.planner.meta.snapshot.meta.OutputJsonifySourceMeta;
 import com.dtsx.docs.core.runner.drivers.ClientDriver;
 import com.dtsx.docs.core.runner.tests.snapshots.sources.SnapshotSource;
 import com.dtsx.docs.core.runner.tests.snapshots.sources.SnapshotSourceUtils;
+import com.dtsx.docs.core.runner.tests.snapshots.sources.schema.SchemaIntrospection;
+import com.dtsx.docs.core.runner.tests.snapshots.verifier.scrubbers.PatternScrubber;
+import com.dtsx.docs.core.runner.tests.snapshots.verifier.scrubbers.PatternScrubber.Rule;
 import com.dtsx.docs.lib.ExternalPrograms.RunResult;
 import com.dtsx.docs.lib.JacksonUtils;
 import lombok.val;
+import org.approvaltests.core.Scrubber;
 
 import java.util.Collection;
 import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 import static com.dtsx.docs.lib.JacksonUtils.runJq;
 
 public class OutputJsonifySource extends SnapshotSource {
+    /// Scrubs dates, times, and timestamps (as strings or as JS-style objects) from the compact JSON, before any `jq` filter is applied.
+    private static final PatternScrubber JSON_SCRUBBER = new PatternScrubber(Stream.of(
+        // RFC date, date object, slash date
+        "\"\\b\\d{4}-\\d{2}-\\d{2}\\b\"",
+        "\\{\"date\":\\d+?,\"month\":\\d+?,\"year\":\\d+?}",
+        "\"\\b\\d{2}/\\d{2}/\\d{4}\\b\"",
+        // RFC time, time object
+        "\"\\b\\d{2}:\\d{2}:\\d{2}(?:\\.\\d+)?\"",
+        "\\{\"hours\":\\d+?,\"minutes\":\\d+?(?:,\"nanoseconds\":\\d+?)?,\"seconds\":\\d+?}",
+        // RFC timestamp
+        "\"\\b\\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}:\\d{2}(?:\\.\\d+)?(?:Z|[+-]\\d{2}:\\d{2})\\b\""
+    ).map(p -> new Rule(Pattern.compile(p), "\"date_or_time\"")).toList());
+
     private final OutputJsonifySourceMeta meta;
 
     public OutputJsonifySource(String name, OutputJsonifySourceMeta meta) {
@@ -24,12 +42,12 @@ public class OutputJsonifySource extends SnapshotSource {
     }
 
     @Override
-    public String mkSnapshotImpl(TestCtx ctx, ClientDriver driver, RunResult res, FixtureMetadata md) {
+    public String mkSnapshotImpl(TestCtx ctx, ClientDriver driver, RunResult res, FixtureMetadata md, SchemaIntrospection schema, Scrubber scrubber) {
         val output = SnapshotSourceUtils.extractOutput(name, res);
         val rawJsonLines = driver.preprocessToJson(ctx, meta, output);
 
         var jsonAsString = JacksonUtils.formatJsonCompact(rawJsonLines);
-        jsonAsString = JsonScrubber.scrub(jsonAsString);
+        jsonAsString = JSON_SCRUBBER.scrub(jsonAsString);
 
         if (meta.jq().isPresent()) {
             jsonAsString = runJq(ctx, jsonAsString, meta.jq().get());
@@ -39,8 +57,8 @@ public class OutputJsonifySource extends SnapshotSource {
         val shouldSort = meta.sort().orElse(true);
 
         val deterministicJson = (!shouldSort && parsedJson instanceof Collection<?> c)
-            ? c.stream().map(SnapshotSourceUtils::mkJsonDeterministic).toList()
-            : SnapshotSourceUtils.mkJsonDeterministic(parsedJson);
+            ? c.stream().map((e) -> SnapshotSourceUtils.mkJsonDeterministic(e, scrubber)).toList()
+            : SnapshotSourceUtils.mkJsonDeterministic(parsedJson, scrubber);
 
         val finalJson = (deterministicJson instanceof Collection<?> c && c.size() == 1 && (c.iterator().next() instanceof Collection<?>))
             ? c.iterator().next()
@@ -48,50 +66,4 @@ public class OutputJsonifySource extends SnapshotSource {
 
         return JacksonUtils.formatJsonPretty(finalJson);
     }
-
-    @SuppressWarnings("SameParameterValue")
-    private static final class JsonScrubber {
-        private static final Pattern RFC_DATE_PATTERN =
-            Pattern.compile("\"\\b\\d{4}-\\d{2}-\\d{2}\\b\"");
-
-        private static final Pattern SLASH_DATE_PATTERN =
-            Pattern.compile("\"\\b\\d{2}/\\d{2}/\\d{4}\\b\"");
-
-        public static final Pattern DATE_OBJECT_PATTERN =
-            Pattern.compile("\\{\"date\":\\d+?,\"month\":\\d+?,\"year\":\\d+?}");
-
-        private static final Pattern RFC_TIME_PATTERN =
-            Pattern.compile("\"\\b\\d{2}:\\d{2}:\\d{2}(?:\\.\\d+)?\"");
-
-        public static final Pattern TIME_OBJECT_PATTERN =
-            Pattern.compile("\\{\"hours\":\\d+?,\"minutes\":\\d+?(,\"nanoseconds\":\\d+?)?,\"seconds\":\\d+?}");
-
-        private static final Pattern RFC_TIMESTAMP_PATTERN =
-            Pattern.compile("\"\\b\\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}:\\d{2}(?:\\.\\d+)?(?:Z|[+-]\\d{2}:\\d{2})\\b\"");
-
-        private static String scrubDate(String json, String replacement) {
-            json = RFC_DATE_PATTERN.matcher(json).replaceAll(replacement);
-            json = DATE_OBJECT_PATTERN.matcher(json).replaceAll(replacement);
-            json = SLASH_DATE_PATTERN.matcher(json).replaceAll(replacement);
-            return json;
-        }
-
-        private static String scrubTime(String json, String replacement) {
-            json = RFC_TIME_PATTERN.matcher(json).replaceAll(replacement);
-            json = TIME_OBJECT_PATTERN.matcher(json).replaceAll(replacement);
-            return json;
-        }
-
-        private static String scrubTimestamp(String json, String replacement) {
-            json = RFC_TIMESTAMP_PATTERN.matcher(json).replaceAll(replacement);
-            return json;
-        }
-
-        public static String scrub(String json) {
-            json = scrubDate(json, "\"date_or_time\"");
-            json = scrubTime(json, "\"date_or_time\"");
-            json = scrubTimestamp(json, "\"date_or_time\"");
-            return json;
-        }
-    }
 }
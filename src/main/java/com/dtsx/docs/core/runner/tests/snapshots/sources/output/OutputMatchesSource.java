@@ -6,8 +6,10 @@ import com.dtsx.docs.core.planner.meta.snapshot.meta.OutputMatchesSourceMeta;
 import com.dtsx.docs.core.runner.drivers.ClientDriver;
 import com.dtsx.docs.core.runner.tests.snapshots.sources.SnapshotSource;
 import com.dtsx.docs.core.runner.tests.snapshots.sources.SnapshotSourceUtils;
+import com.dtsx.docs.core.runner.tests.snapshots.sources.schema.SchemaIntrospection;
 import com.dtsx.docs.lib.ExternalPrograms.RunResult;
 import lombok.val;
+import org.approvaltests.core.Scrubber;
 
 import java.util.regex.Pattern;
 
@@ -20,7 +22,7 @@ public class OutputMatchesSource extends SnapshotSource {
     }
 
     @Override
-    public String mkSnapshotImpl(TestCtx ctx, ClientDriver driver, RunResult res, FixtureMetadata md) {
+    public String mkSnapshotImpl(TestCtx ctx, ClientDriver driver, RunResult res, FixtureMetadata md, SchemaIntrospection schema, Scrubber scrubber) {
         val output = SnapshotSourceUtils.extractOutput(name, res);
 
         if (regex.matcher(output).matches()) {
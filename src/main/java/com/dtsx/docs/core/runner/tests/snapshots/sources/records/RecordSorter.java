@@ -0,0 +1,203 @@
+package com.dtsx.docs.core.runner.tests.snapshots.sources.records;
+
+import com.dtsx.docs.core.runner.tests.snapshots.sources.SnapshotSourceUtils;
+import com.dtsx.docs.lib.JacksonUtils;
+import lombok.SneakyThrows;
+import lombok.val;
+import org.apache.commons.lang3.tuple.Pair;
+import org.approvaltests.core.Scrubber;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Stream;
+
+/// Sorts and pretty-prints records exactly like `formatJsonPretty(mkJsonDeterministic(records, scrubber))` would, but without
+/// ever holding more than a bounded amount of them in memory at once.
+///
+/// Each record is normalized and pretty-printed as soon as it's read, and only its text and sort value are kept.
+/// Once the buffered text exceeds [#SPILL_THRESHOLD_CHARS], it's sorted and spilled to a run file:
+/// ```
+/// .docs_tests_temp/
+///   record_sort/
+///     run-8412...bin
+/// ```
+///
+/// Once every record has been read, the runs (and whatever's still buffered) are merged into the final snapshot text.
+///
+/// Ties are broken by the order the records were read in, so the result is identical to the in-memory stable sort.
+final class RecordSorter implements AutoCloseable {
+    private static final int SPILL_THRESHOLD_CHARS = 8 * 1024 * 1024;
+
+    private static final ArrayFormat ARRAY_FORMAT = ArrayFormat.detect();
+
+    private record Entry(int sortValue, long seq, String json) {}
+
+    private static final Comparator<Entry> ORDER = Comparator.comparingInt(Entry::sortValue).thenComparingLong(Entry::seq);
+
+    private final Path spillDir;
+    private final Scrubber scrubber;
+    private final List<Entry> buffer = new ArrayList<>();
+    private final List<Path> runs = new ArrayList<>();
+    private final List<DataInputStream> openRuns = new ArrayList<>();
+    private long bufferedChars = 0;
+    private long seq = 0;
+
+    private RecordSorter(Path spillDir, Scrubber scrubber) {
+        this.spillDir = spillDir;
+        this.scrubber = scrubber;
+    }
+
+    static String sortAndFormat(Path tmpFolder, Scrubber scrubber, Stream<? extends Map<String, Object>> records) {
+        try (val sorter = new RecordSorter(tmpFolder.resolve("record_sort"), scrubber); records) {
+            records.forEach(sorter::add);
+            return sorter.finish();
+        }
+    }
+
+    private void add(Map<String, Object> record) {
+        val normalized = SnapshotSourceUtils.normalize(record, scrubber);
+        val json = ARRAY_FORMAT.formatElement(normalized.value());
+
+        buffer.add(new Entry(normalized.sortValue(), seq++, json));
+        bufferedChars += json.length();
+
+        if (bufferedChars > SPILL_THRESHOLD_CHARS) {
+            spill();
+        }
+    }
+
+    private String finish() {
+        if (seq == 0) {
+            return JacksonUtils.formatJsonPretty(List.of());
+        }
+
+        buffer.sort(ORDER);
+
+        val sources = new ArrayList<Iterator<Entry>>();
+        sources.add(buffer.iterator());
+
+        for (val run : runs) {
+            sources.add(readRun(run));
+        }
+
+        // k-way merge; with no runs this is just the sorted buffer
+        val heads = new PriorityQueue<Pair<Entry, Iterator<Entry>>>((a, b) -> ORDER.compare(a.getLeft(), b.getLeft()));
+
+        for (val source : sources) {
+            if (source.hasNext()) {
+                heads.add(Pair.of(source.next(), source));
+            }
+        }
+
+        val sb = new StringBuilder(ARRAY_FORMAT.prefix());
+        var first = true;
+
+        while (!heads.isEmpty()) {
+            val head = heads.poll();
+
+            if (!first) {
+                sb.append(ARRAY_FORMAT.separator());
+            }
+
+            sb.append(head.getLeft().json());
+            first = false;
+
+            if (head.getRight().hasNext()) {
+                heads.add(Pair.of(head.getRight().next(), head.getRight()));
+            }
+        }
+
+        return sb.append(ARRAY_FORMAT.suffix()).toString();
+    }
+
+    @SneakyThrows
+    private void spill() {
+        buffer.sort(ORDER);
+
+        Files.createDirectories(spillDir);
+        val run = Files.createTempFile(spillDir, "run-", ".bin");
+        runs.add(run);
+
+        try (val out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run)))) {
+            for (val entry : buffer) {
+                val bytes = entry.json().getBytes(StandardCharsets.UTF_8);
+
+                out.writeInt(entry.sortValue());
+                out.writeLong(entry.seq());
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+        }
+
+        buffer.clear();
+        bufferedChars = 0;
+    }
+
+    @SneakyThrows
+    private Iterator<Entry> readRun(Path run) {
+        val in = new DataInputStream(new BufferedInputStream(Files.newInputStream(run)));
+        openRuns.add(in);
+
+        return new Iterator<>() {
+            private Entry next = readEntry();
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Entry next() {
+                val current = next;
+                next = readEntry();
+                return current;
+            }
+
+            @SneakyThrows
+            private Entry readEntry() {
+                try {
+                    val sortValue = in.readInt();
+                    val seq = in.readLong();
+                    val json = new String(in.readNBytes(in.readInt()), StandardCharsets.UTF_8);
+                    return new Entry(sortValue, seq, json);
+                } catch (EOFException _) {
+                    return null;
+                }
+            }
+        };
+    }
+
+    @Override
+    public void close() {
+        for (val in : openRuns) {
+            try {
+                in.close();
+            } catch (IOException _) {}
+        }
+
+        for (val run : runs) {
+            try {
+                Files.deleteIfExists(run);
+            } catch (IOException _) {}
+        }
+    }
+
+    /// How the pretty printer lays out a top-level array, so elements can be formatted one at a time and joined later.
+    private record ArrayFormat(String prefix, String separator, String suffix) {
+        static ArrayFormat detect() {
+            val text = JacksonUtils.formatJsonPretty(List.of(0, 1));
+            val first = text.indexOf('0');
+            val second = text.lastIndexOf('1');
+
+            return new ArrayFormat(text.substring(0, first), text.substring(first + 1, second), text.substring(second + 1));
+        }
+
+        String formatElement(Object value) {
+            val text = JacksonUtils.formatJsonPretty(Collections.singletonList(value));
+            return text.substring(prefix.length(), text.length() - suffix.length());
+        }
+    }
+}
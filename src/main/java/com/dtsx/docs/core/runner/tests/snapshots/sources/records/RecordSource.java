@@ -11,9 +11,10 @@ import com.dtsx.docs.core.runner.Placeholders;
 import com.dtsx.docs.core.runner.drivers.ClientDriver;
 import com.dtsx.docs.core.runner.tests.snapshots.sources.SnapshotSource;
 import com.dtsx.docs.core.runner.tests.snapshots.sources.output.OutputCaptureSource;
+import com.dtsx.docs.core.runner.tests.snapshots.sources.schema.SchemaIntrospection;
 import com.dtsx.docs.lib.ExternalPrograms.RunResult;
-import com.dtsx.docs.lib.JacksonUtils;
 import lombok.val;
+import org.approvaltests.core.Scrubber;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -21,13 +22,12 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Stream;
 
-import static com.dtsx.docs.core.runner.tests.snapshots.sources.SnapshotSourceUtils.mkJsonDeterministic;
-
 /// Base class for snapshot sources that deterministically captures database records (documents or rows).
 ///
 /// Implemented by [DocumentsSource] and [RowsSource].
 ///
 /// Records are sorted to ensure deterministic ordering for snapshot comparisons, even with dynamically generated IDs or timestamps.
+/// Large result sets are sorted with bounded memory; see [RecordSorter].
 ///
 /// Supports an optional collection/table filter to narrow the records captured in the snapshot.
 /// Supports an optional projection to include/exclude specific fields from the snapshot.
@@ -106,12 +106,11 @@ public abstract class RecordSource extends SnapshotSource {
     protected abstract Stream<Map<String, Object>> streamRecords(TestCtx ctx, String name, String keyspace);
 
     @Override
-    public String mkSnapshotImpl(TestCtx ctx, ClientDriver driver, RunResult res, FixtureMetadata md) {
+    public String mkSnapshotImpl(TestCtx ctx, ClientDriver driver, RunResult res, FixtureMetadata md, SchemaIntrospection schema, Scrubber scrubber) {
         val schemaObjName = resolveName("schema object name", md, driver, overrideName, () -> extractSchemaObjectName(md));
         val schemaObjKeyspace = resolveName("keyspace", md, driver, overrideKeyspace, () -> Optional.of(md.keyspaceName()));
 
-        return JacksonUtils.formatJsonPretty(
-            mkJsonDeterministic(streamRecords(ctx, schemaObjName, schemaObjKeyspace).toList())
-        );
+        // records are paged in, normalized, and sorted (spilling to disk if need be) one at a time
+        return RecordSorter.sortAndFormat(ctx.tmpFolder(), scrubber, streamRecords(ctx, schemaObjName, schemaObjKeyspace));
     }
 }
@@ -0,0 +1,66 @@
+package com.dtsx.docs.core.runner.tests.snapshots.sources.schema;
+
+import com.dtsx.docs.commands.test.TestCtx;
+import com.dtsx.docs.core.runner.tests.snapshots.verifier.SnapshotVerifier;
+import com.dtsx.docs.lib.CliLogger;
+import com.dtsx.docs.lib.JacksonUtils;
+import lombok.val;
+
+import java.util.Objects;
+import java.util.function.Supplier;
+
+import static com.dtsx.docs.core.runner.tests.snapshots.sources.SnapshotSourceUtils.mkJsonDeterministic;
+
+/// Re-reads a schema definition until it stops changing, since schema changes may take a moment to propagate.
+///
+/// Reads are compared by their deterministic JSON form, and retried with a short backoff until two consecutive reads
+/// agree or `--schema-convergence-timeout` passes (in which case the latest read is used).
+///
+/// Most definitions converge on the second read, so this is usually only ~100ms slower than a single read.
+final class SchemaConvergence {
+    private static final long INITIAL_BACKOFF_MS = 100;
+    private static final long MAX_BACKOFF_MS = 800;
+
+    static <T> T awaitStable(TestCtx ctx, String what, Supplier<T> read) {
+        val deadline = System.currentTimeMillis() + ctx.schemaConvergenceTimeout();
+
+        var prev = read.get();
+        var prevJson = toJson(prev);
+        var backoff = INITIAL_BACKOFF_MS;
+
+        while (System.currentTimeMillis() + backoff <= deadline) {
+            if (!sleep(backoff)) {
+                break;
+            }
+
+            val next = read.get();
+            val nextJson = toJson(next);
+
+            if (Objects.equals(prevJson, nextJson)) {
+                return next;
+            }
+
+            prev = next;
+            prevJson = nextJson;
+            backoff = Math.min(backoff * 2, MAX_BACKOFF_MS);
+        }
+
+        CliLogger.debug("Schema for " + what + " did not converge within " + ctx.schemaConvergenceTimeout() + "ms; using the latest read");
+        return prev;
+    }
+
+    // only ever compared against other reads of the same definitions, so the default scrubber orders them well enough
+    private static String toJson(Object obj) {
+        return JacksonUtils.formatJsonCompact(mkJsonDeterministic(obj, SnapshotVerifier.SCRUBBER));
+    }
+
+    private static boolean sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+            return true;
+        } catch (InterruptedException _) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.dtsx.docs.core.runner.tests.snapshots.sources.schema;
+
+import com.datastax.astra.client.collections.definition.documents.Document;
+import com.datastax.astra.client.collections.definition.CollectionDescriptor;
+import com.datastax.astra.client.core.commands.Command;
+import com.datastax.astra.client.tables.commands.options.ListTypesOptions;
+import com.datastax.astra.client.tables.definition.TableDescriptor;
+import com.datastax.astra.client.tables.definition.indexes.TableIndexDescriptor;
+import com.dtsx.docs.commands.test.TestCtx;
+import com.dtsx.docs.core.runner.RunException;
+import com.dtsx.docs.lib.DataAPIUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import lombok.val;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import static java.util.stream.Collectors.toMap;
+
+/// Schema metadata for a single snapshot, fetched at most once no matter how many schema sources need it.
+///
+/// A new instance is created for every snapshot (i.e. after every example run), so nothing is ever carried over
+/// into the next test's `BeforeEach`.
+///
+/// Names and definitions are fetched together, and only once per keyspace (or table), e.g. `collection::names` and
+/// every `collection::definition` share one `listCollections` call (with `explain`), `table::names` and every
+/// `table::definition` share one `listTables` call, `udt::names` and `udt::definitions` share one `listTypes` call,
+/// and `table::index-names` and `table::index-definitions` share one `listIndexes` call. Everything is read via
+/// [SchemaConvergence], so it's settled before being cached.
+///
+/// Safe to use from concurrently evaluated sources; concurrent requests for the same metadata share one fetch.
+@RequiredArgsConstructor
+public final class SchemaIntrospection {
+    private final TestCtx ctx;
+    private final ConcurrentHashMap<List<String>, CompletableFuture<Object>> cache = new ConcurrentHashMap<>();
+
+    record TypeDescriptor(String udtName, Object definition) {}
+
+    public List<String> collectionNames(String keyspace) {
+        return List.copyOf(collections(keyspace).keySet());
+    }
+
+    public List<String> tableNames(String keyspace) {
+        return List.copyOf(tables(keyspace).keySet());
+    }
+
+    public Object collectionDefinition(String keyspace, String collection) {
+        return definitionOf("Collection", collection, keyspace, collections(keyspace));
+    }
+
+    public Object tableDefinition(String keyspace, String table) {
+        return definitionOf("Table", table, keyspace, tables(keyspace));
+    }
+
+    /// @return the keyspace's collections' definitions, by name
+    private Map<String, ?> collections(String keyspace) {
+        return memoize(List.of("collections", keyspace), () -> {
+            val database = DataAPIUtils.getDatabase(ctx.connectionInfo(), keyspace);
+
+            return SchemaConvergence.awaitStable(ctx, "collections", () -> {
+                return database.listCollections().stream()
+                    .collect(toMap(CollectionDescriptor::getName, CollectionDescriptor::getOptions));
+            });
+        });
+    }
+
+    /// @return the keyspace's tables' definitions, by name
+    private Map<String, ?> tables(String keyspace) {
+        return memoize(List.of("tables", keyspace), () -> {
+            val database = DataAPIUtils.getDatabase(ctx.connectionInfo(), keyspace);
+
+            return SchemaConvergence.awaitStable(ctx, "tables", () -> {
+                return database.listTables().stream()
+                    .collect(toMap(TableDescriptor::getName, TableDescriptor::getDefinition));
+            });
+        });
+    }
+
+    private static Object definitionOf(String kind, String name, String keyspace, Map<String, ?> definitions) {
+        val definition = definitions.get(name);
+
+        if (definition == null) {
+            throw new RunException(kind + " '" + name + "' does not exist in keyspace '" + keyspace + "'");
+        }
+
+        return definition;
+    }
+
+    /// @return the table's indexes, by name
+    public Map<String, TableIndexDescriptor> tableIndexes(String keyspace, String table) {
+        return memoize(List.of("tableIndexes", keyspace, table), () -> {
+            val handle = DataAPIUtils.getTable(ctx.connectionInfo(), table, keyspace);
+
+            return SchemaConvergence.awaitStable(ctx, "indexes of table '" + table + "'", () -> {
+                return handle.listIndexes().stream()
+                    .collect(toMap(TableIndexDescriptor::getName, i -> i));
+            });
+        });
+    }
+
+    /// @return the keyspace's user-defined types' definitions, by name
+    public Map<String, Object> types(String keyspace) {
+        return memoize(List.of("types", keyspace), () -> {
+            val database = DataAPIUtils.getDatabase(ctx.connectionInfo(), keyspace);
+
+            val listTypesCommand = Command
+                .create("listTypes")
+                .withOptions(new Document().append("explain", true));
+
+            return SchemaConvergence.awaitStable(ctx, "user-defined types", () -> {
+                return database.runCommand(listTypesCommand, (ListTypesOptions) null)
+                    .getStatusKeyAsList("types", TypeDescriptor.class)
+                    .stream()
+                    .collect(toMap(TypeDescriptor::udtName, TypeDescriptor::definition));
+            });
+        });
+    }
+
+    @SneakyThrows
+    @SuppressWarnings("unchecked")
+    private <T> T memoize(List<String> key, Supplier<T> fetch) {
+        val future = new CompletableFuture<Object>();
+        val existing = cache.putIfAbsent(key, future);
+
+        if (existing != null) {
+            try {
+                return (T) existing.join();
+            } catch (CompletionException e) {
+                throw e.getCause();
+            }
+        }
+
+        try {
+            val value = fetch.get();
+            future.complete(value);
+            return value;
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+            throw e;
+        }
+    }
+}
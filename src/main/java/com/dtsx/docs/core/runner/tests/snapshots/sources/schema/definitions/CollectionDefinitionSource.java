@@ -1,9 +1,8 @@
 package com.dtsx.docs.core.runner.tests.snapshots.sources.schema.definitions;
 
-import com.dtsx.docs.commands.test.TestCtx;
 import com.dtsx.docs.core.planner.meta.snapshot.meta.WithNameAndKeyspace;
 import com.dtsx.docs.core.runner.Placeholders;
-import com.dtsx.docs.lib.DataAPIUtils;
+import com.dtsx.docs.core.runner.tests.snapshots.sources.schema.SchemaIntrospection;
 
 import java.util.Optional;
 
@@ -18,7 +17,7 @@ public class CollectionDefinitionSource extends SchemaObjectDefinitionSource {
     }
 
     @Override
-    protected Object getDefinition(TestCtx ctx, String name, String keyspace) {
-        return DataAPIUtils.getCollection(ctx.connectionInfo(), name, keyspace).getDefinition();
+    protected Object getDefinition(SchemaIntrospection schema, String name, String keyspace) {
+        return schema.collectionDefinition(keyspace, name);
     }
 }
@@ -6,9 +6,11 @@ import com.dtsx.docs.core.planner.meta.snapshot.meta.WithNameAndKeyspace;
 import com.dtsx.docs.core.runner.Placeholders;
 import com.dtsx.docs.core.runner.drivers.ClientDriver;
 import com.dtsx.docs.core.runner.tests.snapshots.sources.SnapshotSource;
+import com.dtsx.docs.core.runner.tests.snapshots.sources.schema.SchemaIntrospection;
 import com.dtsx.docs.lib.ExternalPrograms.RunResult;
 import com.dtsx.docs.lib.JacksonUtils;
 import lombok.val;
+import org.approvaltests.core.Scrubber;
 
 import java.util.Optional;
 
@@ -25,15 +27,20 @@ public abstract class SchemaObjectDefinitionSource extends SnapshotSource {
     }
 
     protected abstract Optional<String> extractSchemaObjectName(Placeholders placeholders);
-    protected abstract Object getDefinition(TestCtx ctx, String name, String keyspace);
+    protected abstract Object getDefinition(SchemaIntrospection schema, String name, String keyspace);
 
     @Override
-    public String mkSnapshotImpl(TestCtx ctx, ClientDriver driver, RunResult res, FixtureMetadata md) {
+    public boolean needsSettledSchema() {
+        return true;
+    }
+
+    @Override
+    public String mkSnapshotImpl(TestCtx ctx, ClientDriver driver, RunResult res, FixtureMetadata md, SchemaIntrospection schema, Scrubber scrubber) {
         val schemaObjName = resolveName("schema object name", md, driver, overrideName, () -> extractSchemaObjectName(md));
         val schemaObjKeyspace = resolveName("keyspace", md, driver, overrideKeyspace, () -> Optional.of(md.keyspaceName()));
 
         return JacksonUtils.formatJsonPretty(
-            mkJsonDeterministic(getDefinition(ctx, schemaObjName, schemaObjKeyspace))
+            mkJsonDeterministic(getDefinition(schema, schemaObjName, schemaObjKeyspace), scrubber)
         );
     }
 }
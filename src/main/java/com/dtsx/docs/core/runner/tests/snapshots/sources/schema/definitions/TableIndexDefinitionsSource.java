@@ -1,16 +1,16 @@
 package com.dtsx.docs.core.runner.tests.snapshots.sources.schema.definitions;
 
-import com.datastax.astra.client.tables.definition.indexes.TableIndexDescriptor;
 import com.dtsx.docs.commands.test.TestCtx;
 import com.dtsx.docs.core.planner.fixtures.FixtureMetadata;
 import com.dtsx.docs.core.planner.meta.snapshot.meta.TableIndexDefinitionSourceMeta;
 import com.dtsx.docs.core.runner.RunException;
 import com.dtsx.docs.core.runner.drivers.ClientDriver;
 import com.dtsx.docs.core.runner.tests.snapshots.sources.SnapshotSource;
-import com.dtsx.docs.lib.DataAPIUtils;
+import com.dtsx.docs.core.runner.tests.snapshots.sources.schema.SchemaIntrospection;
 import com.dtsx.docs.lib.ExternalPrograms.RunResult;
 import com.dtsx.docs.lib.JacksonUtils;
 import lombok.val;
+import org.approvaltests.core.Scrubber;
 
 import java.util.List;
 import java.util.Optional;
@@ -18,7 +18,6 @@ import java.util.Set;
 import java.util.stream.Stream;
 
 import static com.dtsx.docs.core.runner.tests.snapshots.sources.SnapshotSourceUtils.mkJsonDeterministic;
-import static java.util.stream.Collectors.toMap;
 
 public class TableIndexDefinitionsSource extends SnapshotSource {
     private final List<String> indexes;
@@ -33,17 +32,15 @@ public class TableIndexDefinitionsSource extends SnapshotSource {
     }
 
     @Override
-    public String mkSnapshotImpl(TestCtx ctx, ClientDriver driver, RunResult res, FixtureMetadata md) {
-        val tableName = resolveName("table name", md, driver, overrideName, md::tableName);
+    public boolean needsSettledSchema() {
+        return true;
+    }
 
-        val table = DataAPIUtils.getTable(
-            ctx.connectionInfo(),
-            tableName,
-            overrideKeyspace.orElse(md.keyspaceName())
-        );
+    @Override
+    public String mkSnapshotImpl(TestCtx ctx, ClientDriver driver, RunResult res, FixtureMetadata md, SchemaIntrospection schema, Scrubber scrubber) {
+        val tableName = resolveName("table name", md, driver, overrideName, md::tableName);
 
-        val existingIndexes = table.listIndexes().stream()
-            .collect(toMap(TableIndexDescriptor::getName, i -> i));
+        val existingIndexes = schema.tableIndexes(overrideKeyspace.orElse(md.keyspaceName()), tableName);
 
         val capturesIndexes = resolveIndexes(md, driver)
             .map((i) -> {
@@ -54,7 +51,7 @@ public class TableIndexDefinitionsSource extends SnapshotSource {
             .toList();
 
         return JacksonUtils.formatJsonPretty(
-            mkJsonDeterministic(capturesIndexes)
+            mkJsonDeterministic(capturesIndexes, scrubber)
         );
     }
 
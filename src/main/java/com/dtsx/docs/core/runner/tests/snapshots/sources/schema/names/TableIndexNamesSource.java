@@ -1,9 +1,9 @@
 package com.dtsx.docs.core.runner.tests.snapshots.sources.schema.names;
 
-import com.datastax.astra.client.databases.Database;
 import com.dtsx.docs.core.planner.fixtures.FixtureMetadata;
 import com.dtsx.docs.core.planner.meta.snapshot.meta.WithNameAndKeyspace;
 import com.dtsx.docs.core.runner.drivers.ClientDriver;
+import com.dtsx.docs.core.runner.tests.snapshots.sources.schema.SchemaIntrospection;
 import lombok.val;
 
 import java.util.List;
@@ -18,8 +18,8 @@ public class TableIndexNamesSource extends NamesSource {
     }
 
     @Override
-    public List<String> names(Database db, ClientDriver driver, FixtureMetadata md) {
+    public List<String> names(SchemaIntrospection schema, String keyspace, ClientDriver driver, FixtureMetadata md) {
         val tableName = resolveName("table name", md, driver, overrideName, md::tableName);
-        return db.getTable(tableName).listIndexesNames();
+        return List.copyOf(schema.tableIndexes(keyspace, tableName).keySet());
     }
 }
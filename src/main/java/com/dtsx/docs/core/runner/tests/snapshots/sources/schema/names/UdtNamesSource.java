@@ -1,10 +1,10 @@
 package com.dtsx.docs.core.runner.tests.snapshots.sources.schema.names;
 
-import com.datastax.astra.client.databases.Database;
 import com.dtsx.docs.core.planner.fixtures.FixtureMetadata;
 import com.dtsx.docs.core.planner.meta.snapshot.meta.WithKeyspace;
 import com.dtsx.docs.core.runner.Placeholders;
 import com.dtsx.docs.core.runner.drivers.ClientDriver;
+import com.dtsx.docs.core.runner.tests.snapshots.sources.schema.SchemaIntrospection;
 
 import java.util.List;
 
@@ -14,7 +14,7 @@ public class UdtNamesSource extends NamesSource {
     }
 
     @Override
-    public List<String> names(Database db, ClientDriver driver, FixtureMetadata md) {
-        return db.listTypeNames();
+    public List<String> names(SchemaIntrospection schema, String keyspace, ClientDriver driver, FixtureMetadata md) {
+        return List.copyOf(schema.types(keyspace).keySet());
     }
 }
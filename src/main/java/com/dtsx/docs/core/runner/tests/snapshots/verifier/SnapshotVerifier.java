@@ -10,8 +10,10 @@ import com.dtsx.docs.core.runner.tests.results.TestOutcome;
 import com.dtsx.docs.core.runner.tests.results.TestOutcome.FailedToVerify;
 import com.dtsx.docs.core.runner.tests.snapshots.reducers.SnapshotReductionException;
 import com.dtsx.docs.core.runner.tests.snapshots.sources.SnapshotSource;
-import com.dtsx.docs.core.runner.tests.snapshots.verifier.scrubbers.ObjectIdScrubber;
-import com.dtsx.docs.core.runner.tests.snapshots.verifier.scrubbers.UUIDScrubber;
+import com.dtsx.docs.core.runner.tests.snapshots.sources.schema.SchemaIntrospection;
+import com.dtsx.docs.core.runner.tests.snapshots.verifier.Snapshot.SnapshotPart;
+import com.dtsx.docs.core.runner.tests.snapshots.verifier.scrubbers.PatternScrubber;
+import com.dtsx.docs.core.runner.tests.snapshots.verifier.scrubbers.PatternScrubber.Rule;
 import com.dtsx.docs.core.runner.tests.strategies.execution.ExecutionStrategy.TestResetter;
 import com.dtsx.docs.lib.CliLogger;
 import com.dtsx.docs.lib.ExternalPrograms.RunResult;
@@ -21,14 +23,19 @@ import lombok.val;
 import org.approvaltests.Approvals;
 import org.approvaltests.core.Options;
 import org.approvaltests.core.Scrubber;
-import org.approvaltests.scrubbers.MultiScrubber;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 import static com.dtsx.docs.core.runner.tests.VerifyMode.DRY_RUN;
 import static com.dtsx.docs.core.runner.tests.VerifyMode.NORMAL;
@@ -37,14 +44,16 @@ import static com.dtsx.docs.core.runner.tests.VerifyMode.NORMAL;
 public class SnapshotVerifier {
     private static final String LAST_MODIFIED_FILE = "last-modified.txt";
 
-    public static final Scrubber SCRUBBER = new MultiScrubber(List.of(
-        new UUIDScrubber(),
-        new ObjectIdScrubber()
+    /// The scrubber applied to every snapshot, which test roots may extend with `snapshots.scrub` in their `meta.yml`.
+    public static final PatternScrubber SCRUBBER = new PatternScrubber(List.of(
+        new Rule(Pattern.compile("[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}"), "uuid"),
+        new Rule(Pattern.compile("[a-fA-F0-9]{24}"), "objectId")
     ));
 
     private final TestCtx ctx;
     private final List<SnapshotSource> snapshotSources;
     private final SnapshotsShareConfig shareConfig;
+    private final Scrubber scrubber;
 
     @SneakyThrows
     @SuppressWarnings("BusyWait")
@@ -85,15 +94,54 @@ public class SnapshotVerifier {
         }
     }
 
+    /// Evaluates the snapshot sources concurrently (most of them are Data API round trips), and assembles the parts
+    /// in their usual sorted order.
+    ///
+    /// Sources which [need settled schema][SnapshotSource#needsSettledSchema] are only evaluated once all the others are
+    /// done, so they see the schema as late as they would've if every source ran one after the other. They share one
+    /// [SchemaIntrospection], which waits for names and definitions to settle and is thrown away along with the snapshot.
     private Snapshot mkSnapshot(ClientDriver driver, FixtureMetadata md, RunResult result) {
-        val parts = snapshotSources.stream()
-            .map(s -> s.mkSnapshot(ctx, driver, result, md))
-            .toList();
+        val schema = new SchemaIntrospection(ctx);
+        val phases = snapshotSources.stream().collect(Collectors.partitioningBy(SnapshotSource::needsSettledSchema));
 
-        return Snapshot.fromParts(SCRUBBER, parts);
+        val parts = new ArrayList<SnapshotPart>();
+        parts.addAll(evaluate(phases.get(false), driver, md, result, schema));
+        parts.addAll(evaluate(phases.get(true), driver, md, result, schema));
+
+        return Snapshot.fromParts(scrubber, parts);
+    }
+
+    private List<SnapshotPart> evaluate(List<SnapshotSource> sources, ClientDriver driver, FixtureMetadata md, RunResult result, SchemaIntrospection schema) {
+        if (sources.size() <= 1) {
+            return sources.stream().map(s -> s.mkSnapshot(ctx, driver, result, md, schema, scrubber)).toList();
+        }
+
+        try (val executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            val futures = sources.stream()
+                .map(s -> executor.submit(() -> s.mkSnapshot(ctx, driver, result, md, schema, scrubber)))
+                .toList();
+
+            val parts = new ArrayList<SnapshotPart>();
+
+            for (val future : futures) {
+                parts.add(awaitPart(future, executor));
+            }
+
+            return parts;
+        }
+    }
+
+    // rethrows the source's own exception, so that e.g. timeouts are still retried by `verify`
+    @SneakyThrows
+    private SnapshotPart awaitPart(Future<SnapshotPart> future, ExecutorService executor) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            executor.shutdownNow();
+            throw e.getCause();
+        }
     }
 
-    // TODO maybe cache approved test file contents' hashes + client artifacts so we don't re-verify unchanged tests?
     private TestOutcome verifySnapshot(ClientDriver driver, TestRoot testRoot, Snapshot snapshot) {
         val namer = mkNamer(driver.language(), testRoot);
         val options = mkApprovalOptions(namer);
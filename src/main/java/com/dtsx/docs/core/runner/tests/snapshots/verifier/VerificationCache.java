@@ -0,0 +1,159 @@
+package com.dtsx.docs.core.runner.tests.snapshots.verifier;
+
+import com.dtsx.docs.commands.test.TestCtx;
+import com.dtsx.docs.core.planner.TestRoot;
+import com.dtsx.docs.core.planner.meta.snapshot.SnapshotTestMeta;
+import com.dtsx.docs.core.runner.drivers.ClientDriver;
+import com.dtsx.docs.core.runner.tests.results.TestOutcome;
+import com.dtsx.docs.lib.CliLogger;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import lombok.val;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+import static com.dtsx.docs.core.runner.tests.VerifyMode.*;
+import static com.dtsx.docs.lib.Constants.BASE_DIR;
+import static com.dtsx.docs.lib.Constants.META_FILE;
+
+/// A persistent, content-addressed record of snapshot tests which have previously passed.
+///
+/// A test's key is a hash of everything which may affect its result:
+/// - the client language and the exact client version installed (see [ClientDriver#resolvedArtifact])
+/// - the database the tests run against (its destination and endpoint)
+/// - the example file(s) being tested
+/// - the test root's `meta.yml`
+/// - the base and test fixture sources, plus the shared `_base/` files they import
+/// - the approved snapshot
+///
+/// Each pass is recorded as a small marker file named after its key:
+/// ```
+/// .docs_tests_temp/
+///   verification_cache/
+///     3f1c...e9a0  <- "find-many (TYPESCRIPT)"
+/// ```
+///
+/// A test whose key matches a previous pass is reported as [TestOutcome.CachedPassed] without running anything.
+/// Tests without an approved snapshot, or whose client artifact couldn't be resolved, are never cached.
+///
+/// The cache is opt-in (`--cache`), since it can't see changes on the server side (e.g. a Data API upgrade).
+@RequiredArgsConstructor
+public class VerificationCache {
+    private final TestCtx ctx;
+
+    /// Whether the cache may be used at all; it's only enabled by `--cache`, and is meaningless for dry/compile-only runs.
+    public boolean enabled() {
+        return ctx.verificationCache() && (ctx.verifyMode() == NORMAL || ctx.verifyMode() == VERIFY_ONLY || ctx.verifyMode() == NO_COMPILE_ONLY);
+    }
+
+    /// Computes the cache key for the given language's files in a test root.
+    ///
+    /// @return the key, or empty if the cache is disabled, there's no approved snapshot to key against, or the installed client version is unknown
+    public Optional<String> key(ClientDriver driver, TestRoot testRoot, SnapshotTestMeta meta, Set<Path> filesForLang) {
+        if (!enabled()) {
+            return Optional.empty();
+        }
+
+        val approvedFile = new ExampleResultNamer(ctx, driver.language(), testRoot, meta.shareConfig()).getApprovedFile(".txt").toPath();
+
+        if (!Files.exists(approvedFile)) {
+            return Optional.empty();
+        }
+
+        val artifact = driver.resolvedArtifact(ctx);
+
+        if (driver.artifactIfPresent().isPresent() && artifact.isEmpty()) {
+            return Optional.empty();
+        }
+
+        val digest = new Digest();
+
+        digest.add("language", driver.language().name());
+        digest.add("artifact", artifact.map((a) -> a.spec() + "\0" + a.version()).orElse(""));
+        digest.add("destination", ctx.connectionInfo().destination().name());
+        digest.add("endpoint", ctx.connectionInfo().endpoint());
+
+        for (val file : new TreeSet<>(filesForLang)) {
+            digest.add(file);
+        }
+
+        digest.add(testRoot.path().resolve(META_FILE));
+        meta.baseFixture().sourcePath().ifPresent(digest::add);
+        meta.testFixture().sourcePath().ifPresent(digest::add);
+        digest.addDir(ctx.examplesFolder().resolve(BASE_DIR));
+        digest.add(approvedFile);
+
+        return Optional.of(digest.finish());
+    }
+
+    /// Checks whether a test with the given key has previously passed.
+    public boolean hasPassed(String key) {
+        return Files.exists(cacheDir().resolve(key));
+    }
+
+    /// Records that a test with the given key has passed. Failures to write are logged but otherwise ignored.
+    public void recordPass(String key, TestRoot testRoot, ClientDriver driver) {
+        try {
+            Files.createDirectories(cacheDir());
+            Files.writeString(cacheDir().resolve(key), testRoot.rootName() + " (" + driver.language() + ")");
+        } catch (IOException e) {
+            CliLogger.exception("Failed to record verification cache entry for '" + testRoot.rootName() + "'", e);
+        }
+    }
+
+    private Path cacheDir() {
+        return ctx.tmpFolder().resolve("verification_cache");
+    }
+
+    private class Digest {
+        private final MessageDigest md = sha256();
+
+        public void add(String label, String value) {
+            md.update(label.getBytes(StandardCharsets.UTF_8));
+            md.update((byte) 0);
+            md.update(value.getBytes(StandardCharsets.UTF_8));
+            md.update((byte) 0);
+        }
+
+        @SneakyThrows
+        public void add(Path file) {
+            md.update(ctx.examplesFolder().relativize(file).toString().getBytes(StandardCharsets.UTF_8));
+            md.update((byte) 0);
+
+            if (Files.exists(file)) {
+                md.update(Files.readAllBytes(file));
+            }
+
+            md.update((byte) 0);
+        }
+
+        @SneakyThrows
+        public void addDir(Path dir) {
+            if (!Files.isDirectory(dir)) {
+                return;
+            }
+
+            try (Stream<Path> files = Files.walk(dir)) {
+                files.filter(Files::isRegularFile).sorted().forEach(this::add);
+            }
+        }
+
+        public String finish() {
+            return HexFormat.of().formatHex(md.digest());
+        }
+
+        @SneakyThrows
+        private static MessageDigest sha256() {
+            return MessageDigest.getInstance("SHA-256");
+        }
+    }
+}
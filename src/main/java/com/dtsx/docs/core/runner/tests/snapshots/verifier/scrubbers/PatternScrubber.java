@@ -0,0 +1,98 @@
+package com.dtsx.docs.core.runner.tests.snapshots.verifier.scrubbers;
+
+import com.dtsx.docs.core.runner.RunException;
+import lombok.val;
+import org.approvaltests.core.Scrubber;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/// Replaces every match of any of several patterns in a single left-to-right scan.
+///
+/// The rules are compiled into one alternation, so scrubbing makes one pass over the input and builds one output
+/// buffer, no matter how many rules there are (as opposed to one full `replaceAll` copy per pattern).
+///
+/// Matches are found leftmost-first; if several rules match at the same position, the earliest rule wins. Since all
+/// rules share one regex, they can't use numbered backreferences (named ones are fine), and flags must be embedded in
+/// the pattern (e.g. `(?i)`). Replacements are literal.
+///
+/// Example:
+/// ```java
+/// val scrubber = new PatternScrubber(List.of(
+///     new Rule(Pattern.compile("[0-9a-f]{24}"), "objectId"),
+///     new Rule(Pattern.compile("\\d{4}-\\d{2}-\\d{2}"), "date")
+/// ));
+///
+/// scrubber.scrub("id 65a1f0c2e4b0a1b2c3d4e5f6 on 2024-01-01"); // "id objectId on date"
+/// ```
+public class PatternScrubber implements Scrubber {
+    public record Rule(Pattern pattern, String replacement) {}
+
+    private final List<Rule> rules;
+    private final Pattern combined;
+    private final int[] ruleGroups;
+
+    public PatternScrubber(List<Rule> rules) {
+        this.rules = List.copyOf(rules);
+        this.ruleGroups = new int[rules.size()];
+
+        val regex = new StringBuilder();
+        var group = 1;
+
+        for (var i = 0; i < rules.size(); i++) {
+            val pattern = rules.get(i).pattern();
+
+            regex.append((i == 0) ? "(" : "|(").append(pattern.pattern()).append(")");
+            ruleGroups[i] = group;
+
+            group += 1 + pattern.matcher("").groupCount();
+        }
+
+        this.combined = Pattern.compile(regex.toString());
+    }
+
+    /// Returns a new scrubber with the given rules applied after this one's.
+    public PatternScrubber withRules(List<Rule> extraRules) {
+        if (extraRules.isEmpty()) {
+            return this;
+        }
+
+        val allRules = new ArrayList<>(rules);
+        allRules.addAll(extraRules);
+        return new PatternScrubber(allRules);
+    }
+
+    @Override
+    public String scrub(String input) {
+        if (rules.isEmpty()) {
+            return input;
+        }
+
+        val matcher = combined.matcher(input);
+
+        if (!matcher.find()) {
+            return input;
+        }
+
+        val sb = new StringBuilder(input.length());
+        var last = 0;
+
+        do {
+            sb.append(input, last, matcher.start()).append(replacementFor(matcher));
+            last = matcher.end();
+        } while (matcher.find());
+
+        return sb.append(input, last, input.length()).toString();
+    }
+
+    private String replacementFor(Matcher matcher) {
+        for (var i = 0; i < ruleGroups.length; i++) {
+            if (matcher.start(ruleGroups[i]) != -1) {
+                return rules.get(i).replacement();
+            }
+        }
+        throw new RunException("Match '" + matcher.group() + "' doesn't belong to any rule");
+    }
+}
@@ -0,0 +1,97 @@
+package com.dtsx.docs.core.runner.tests.strategies.test;
+
+import com.dtsx.docs.commands.test.TestCtx;
+import com.dtsx.docs.core.planner.TestPlan;
+import com.dtsx.docs.core.planner.TestRoot;
+import com.dtsx.docs.core.runner.ExecutionEnvironment.ExecutionEnvironments;
+import com.dtsx.docs.core.runner.ExecutionEnvironment.TestFileModifiers;
+import com.dtsx.docs.core.runner.drivers.BatchCompilation;
+import com.dtsx.docs.core.runner.drivers.BatchCompilation.BatchFile;
+import com.dtsx.docs.core.runner.drivers.ClientLanguage;
+import com.dtsx.docs.core.runner.tests.results.TestOutcome;
+import com.dtsx.docs.lib.CliLogger;
+import lombok.val;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static com.dtsx.docs.core.runner.tests.VerifyMode.DRY_RUN;
+import static com.dtsx.docs.core.runner.tests.VerifyMode.NO_COMPILE_ONLY;
+
+/// Compiles every compile-only test file in the plan up front, with one compiler invocation per language (`--batch-compile`).
+///
+/// The outcomes are handed to each root's [CompilesTestStrategy], which then only compiles (one by one) the files the
+/// batch couldn't decide, e.g. for languages without batch support, or when the compiler failed without blaming any file.
+///
+/// Each language is compiled on its own (the test runner compiles them concurrently, so that test roots only wait on
+/// their own languages), in a leased execution environment.
+///
+/// @see BatchCompilation
+public final class CompileBatch {
+    private record Entry(TestRoot testRoot, CompilesTestStrategy strategy, Path path) {}
+
+    private CompileBatch() {}
+
+    public static void compile(TestCtx ctx, TestPlan plan, ExecutionEnvironments execEnvs, ClientLanguage lang) {
+        if (ctx.verifyMode() == DRY_RUN || ctx.verifyMode() == NO_COMPILE_ONLY) {
+            return;
+        }
+
+        val entries = new ArrayList<Entry>();
+
+        plan.forEachPool((_, testRoots) -> {
+            for (val testRoot : testRoots) {
+                if (testRoot.testStrategy() instanceof CompilesTestStrategy strategy) {
+                    testRoot.filesToTest().getOrDefault(lang, Set.of()).forEach(path -> entries.add(new Entry(testRoot, strategy, path)));
+                }
+            }
+        });
+
+        if (!entries.isEmpty()) {
+            compileLanguage(ctx, execEnvs, lang, entries);
+        }
+    }
+
+    private static void compileLanguage(TestCtx ctx, ExecutionEnvironments execEnvs, ClientLanguage lang, List<Entry> entries) {
+        val driver = ctx.drivers().get(lang);
+        val languageName = lang.name().toLowerCase();
+
+        CliLogger.loading("Batch compiling @!%d!@ %s file%s".formatted(entries.size(), languageName, (entries.size() == 1) ? "" : "s"), (_) -> {
+            val execEnv = execEnvs.acquire(lang);
+
+            try {
+                val files = new ArrayList<BatchFile>();
+
+                for (val entry : entries) {
+                    try {
+                        files.add(new BatchFile(entry.path(), execEnv.prepareTestFile(driver, entry.path(), entry.strategy().mkPlaceholders(entry.testRoot()), TestFileModifiers.NONE)));
+                    } catch (Exception e) {
+                        entry.strategy().precompiled(entry.path(), new TestOutcome.Errored(e).alsoLog(entry.testRoot(), lang));
+                    }
+                }
+
+                val results = driver.compileBatch(ctx, execEnv, files);
+
+                for (val entry : entries) {
+                    val res = results.get(entry.path());
+
+                    if (res != null) {
+                        entry.strategy().precompiled(entry.path(), entry.strategy().mkOutcome(entry.testRoot(), lang, res));
+                    }
+                }
+
+                if (results.size() < files.size() && !results.isEmpty()) {
+                    CliLogger.debug("Batch compilation left %d %s file(s) undecided; compiling them one by one".formatted(files.size() - results.size(), languageName));
+                }
+            } catch (Exception e) {
+                CliLogger.exception("Batch compilation failed for " + languageName + "; compiling its files one by one instead", e);
+            } finally {
+                execEnvs.release(execEnv);
+            }
+
+            return null;
+        });
+    }
+}
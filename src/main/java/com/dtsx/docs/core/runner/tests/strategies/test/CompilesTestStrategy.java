@@ -14,21 +14,26 @@ import com.dtsx.docs.core.runner.tests.results.TestOutcome;
 import com.dtsx.docs.core.runner.tests.results.TestRootResults;
 import com.dtsx.docs.lib.CliLogger;
 import com.dtsx.docs.lib.ExternalPrograms.ExternalProgram;
+import com.dtsx.docs.lib.ExternalPrograms.RunResult;
 import lombok.val;
 
 import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
 
 import static com.dtsx.docs.core.runner.tests.VerifyMode.DRY_RUN;
 import static com.dtsx.docs.core.runner.tests.VerifyMode.NO_COMPILE_ONLY;
 
 public final class CompilesTestStrategy extends TestStrategy<CompilesTestMeta> {
+    /// Outcomes already decided by [CompileBatch] (with `--batch-compile`), keyed by test file
+    private final Map<Path, TestOutcome> precompiled = new ConcurrentHashMap<>();
+
     public CompilesTestStrategy(TestCtx ctx, CompilesTestMeta m) {
         super(ctx, m);
     }
@@ -38,25 +43,44 @@ public final class CompilesTestStrategy extends TestStrategy<CompilesTestMeta> {
         return pool.slice(0, 0);
     }
 
+    @Override
+    public boolean fullyCached(TestRoot testRoot) {
+        return testRoot.filesToTest().values().stream().flatMap(Set::stream).allMatch(precompiled::containsKey);
+    }
+
     @Override
     public TestRootResults runTestsInRoot(ExternalProgram tsx, TestRoot testRoot, ExecutionEnvironments execEnvs, BaseFixturePool pool) {
         val displayMsg = "Compiling @!%d!@ file%s in @!%s!@".formatted(testRoot.numFilesToTest(), (testRoot.numFilesToTest() == 1) ? "" : "s", testRoot.rootName());
 
         val outcomes = new ConcurrentHashMap<ClientLanguage, Map<Path, TestOutcome>>();
+        val durations = new ConcurrentHashMap<ClientLanguage, LongAdder>();
 
         return CliLogger.loading(displayMsg, (_) -> {
             try (val executor = Executors.newVirtualThreadPerTaskExecutor()) {
                 val futures = new ArrayList<Future<?>>();
 
+                // one task per file; concurrency per language is bounded by the number of execution environment replicas
                 testRoot.filesToTest().forEach((lang, paths) -> {
                     val driver = ctx.drivers().get(lang);
-                    val execEnv = execEnvs.forLanguage(lang);
 
-                    futures.add(executor.submit(() -> {
-                        paths.forEach(path -> {
-                            runSingleTest(testRoot, outcomes, path, driver, execEnv);
-                        });
-                    }));
+                    paths.forEach(path -> {
+                        if (precompiled.containsKey(path)) {
+                            outcomes.computeIfAbsent(lang, _ -> new ConcurrentHashMap<>()).put(path, precompiled.get(path));
+                            return;
+                        }
+
+                        futures.add(executor.submit(() -> {
+                            val execEnv = execEnvs.acquire(lang);
+                            val startTime = System.currentTimeMillis();
+
+                            try {
+                                runSingleTest(testRoot, outcomes, path, driver, execEnv);
+                            } finally {
+                                durations.computeIfAbsent(lang, _ -> new LongAdder()).add(System.currentTimeMillis() - startTime);
+                                execEnvs.release(execEnv);
+                            }
+                        }));
+                    });
                 });
 
                 for (val future : futures) {
@@ -64,6 +88,10 @@ public final class CompilesTestStrategy extends TestStrategy<CompilesTestMeta> {
                 }
             }
 
+            durations.forEach((lang, duration) -> {
+                ctx.durationHistory().record(testRoot, lang, duration.sum());
+            });
+
             return new TestRootResults(testRoot, outcomes);
         });
     }
@@ -71,7 +99,7 @@ public final class CompilesTestStrategy extends TestStrategy<CompilesTestMeta> {
     private void runSingleTest(TestRoot testRoot, Map<ClientLanguage, Map<Path, TestOutcome>> outcomes, Path path, ClientDriver driver, ExecutionEnvironment execEnv) {
         val lang = driver.language();
 
-        outcomes.computeIfAbsent(lang, _ -> new HashMap<>());
+        outcomes.computeIfAbsent(lang, _ -> new ConcurrentHashMap<>());
 
         if (ctx.verifyMode() == DRY_RUN || ctx.verifyMode() == NO_COMPILE_ONLY) {
             outcomes.get(lang).put(path, TestOutcome.DryPassed.INSTANCE);
@@ -80,11 +108,7 @@ public final class CompilesTestStrategy extends TestStrategy<CompilesTestMeta> {
 
         try {
             val outcome = execEnv.withTestFileCopied(driver, path, mkPlaceholders(testRoot), TestFileModifiers.NONE, () -> {
-                val res = driver.compileScript(ctx, execEnv);
-
-                return (res.notOk())
-                    ? new TestOutcome.FailedToCompile(res.output()).alsoLog(testRoot, lang, res.output())
-                    : TestOutcome.Passed.INSTANCE;
+                return mkOutcome(testRoot, lang, driver.compileScript(ctx, execEnv));
             });
 
             outcomes.get(lang).put(path, outcome);
@@ -93,7 +117,17 @@ public final class CompilesTestStrategy extends TestStrategy<CompilesTestMeta> {
         }
     }
 
-    private Placeholders mkPlaceholders(TestRoot testRoot) {
+    void precompiled(Path path, TestOutcome outcome) {
+        precompiled.put(path, outcome);
+    }
+
+    TestOutcome mkOutcome(TestRoot testRoot, ClientLanguage lang, RunResult res) {
+        return (res.notOk())
+            ? new TestOutcome.FailedToCompile(res.output()).alsoLog(testRoot, lang, res.output())
+            : TestOutcome.Passed.INSTANCE;
+    }
+
+    Placeholders mkPlaceholders(TestRoot testRoot) {
         return new Placeholders(
             Optional.of("compiles_test_collection"),
             Optional.of("compiles_test_table"),
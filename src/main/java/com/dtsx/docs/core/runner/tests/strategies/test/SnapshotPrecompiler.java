@@ -0,0 +1,93 @@
+package com.dtsx.docs.core.runner.tests.strategies.test;
+
+import com.dtsx.docs.commands.test.TestCtx;
+import com.dtsx.docs.core.planner.TestPlan;
+import com.dtsx.docs.core.runner.ExecutionEnvironment.ExecutionEnvironments;
+import com.dtsx.docs.core.runner.ExecutionEnvironment.TestFileModifierFlags;
+import com.dtsx.docs.core.runner.Placeholders;
+import com.dtsx.docs.core.runner.drivers.BatchCompilation.BatchFile;
+import com.dtsx.docs.core.runner.drivers.ClientDriver;
+import com.dtsx.docs.core.runner.drivers.ClientLanguage;
+import com.dtsx.docs.lib.CliLogger;
+import lombok.val;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.dtsx.docs.core.runner.tests.VerifyMode.DRY_RUN;
+
+/// Hands every snapshot test script in the plan to drivers which [precompile][ClientDriver#precompile] them (e.g. C# with
+/// `--csharp-assembly`), before any test root runs.
+///
+/// Fixture names are only known once a test runs, so they're left as-is (e.g. `**COLLECTION_NAME**`) for the driver to
+/// resolve at runtime; everything else is resolved and preprocessed as usual.
+///
+/// Each language is precompiled on its own (the test runner precompiles them concurrently, so that test roots only wait
+/// on their own languages), in a leased execution environment.
+public final class SnapshotPrecompiler {
+    private record Entry(Path path, Placeholders placeholders, @TestFileModifierFlags int mods) {}
+
+    private SnapshotPrecompiler() {}
+
+    public static void precompile(TestCtx ctx, TestPlan plan, ExecutionEnvironments execEnvs, ClientLanguage lang) {
+        val driver = ctx.drivers().get(lang);
+
+        if (ctx.verifyMode() == DRY_RUN || !driver.precompiles(ctx)) {
+            return;
+        }
+
+        val entries = new ArrayList<Entry>();
+
+        plan.forEachPool((_, testRoots) -> {
+            for (val testRoot : testRoots) {
+                if (!(testRoot.testStrategy() instanceof SnapshotTestStrategy strategy) || strategy.fullyCached(testRoot)) {
+                    continue;
+                }
+
+                val placeholders = new Placeholders(
+                    Optional.of("**COLLECTION_NAME**"),
+                    Optional.of("**TABLE_NAME**"),
+                    "**KEYSPACE_NAME**",
+                    testRoot.vars()
+                );
+
+                testRoot.filesToTest().getOrDefault(lang, Set.of()).forEach(path -> entries.add(new Entry(path, placeholders, strategy.testFileModifiers())));
+            }
+        });
+
+        if (!entries.isEmpty()) {
+            precompileLanguage(ctx, execEnvs, driver, entries);
+        }
+    }
+
+    private static void precompileLanguage(TestCtx ctx, ExecutionEnvironments execEnvs, ClientDriver driver, List<Entry> entries) {
+        val languageName = driver.language().name().toLowerCase();
+
+        CliLogger.loading("Precompiling @!%d!@ %s file%s".formatted(entries.size(), languageName, (entries.size() == 1) ? "" : "s"), (_) -> {
+            val execEnv = execEnvs.acquire(driver.language());
+
+            try {
+                val files = new ArrayList<BatchFile>();
+
+                for (val entry : entries) {
+                    try {
+                        files.add(new BatchFile(entry.path(), execEnv.prepareTestFile(driver, entry.path(), entry.placeholders(), entry.mods())));
+                    } catch (Exception e) {
+                        CliLogger.debug("Not precompiling " + entry.path() + ": " + e.getMessage());
+                    }
+                }
+
+                driver.precompile(ctx, execEnv, files);
+            } catch (Exception e) {
+                CliLogger.exception("Precompilation failed for " + languageName + "; running its files as usual instead", e);
+            } finally {
+                execEnvs.release(execEnv);
+            }
+
+            return null;
+        });
+    }
+}
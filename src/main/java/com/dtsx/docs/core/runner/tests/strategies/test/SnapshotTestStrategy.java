@@ -6,6 +6,7 @@ import com.dtsx.docs.core.planner.fixtures.BaseFixturePool;
 import com.dtsx.docs.core.planner.fixtures.FixtureMetadata;
 import com.dtsx.docs.core.planner.meta.snapshot.SnapshotTestMeta;
 import com.dtsx.docs.core.runner.ExecutionEnvironment.ExecutionEnvironments;
+import com.dtsx.docs.core.runner.ExecutionEnvironment.TestFileModifierFlags;
 import com.dtsx.docs.core.runner.ExecutionEnvironment.TestFileModifiers;
 import com.dtsx.docs.core.runner.PlaceholderResolver;
 import com.dtsx.docs.core.runner.drivers.ClientLanguage;
@@ -13,6 +14,7 @@ import com.dtsx.docs.core.runner.tests.results.TestOutcome;
 import com.dtsx.docs.core.runner.tests.results.TestRootResults;
 import com.dtsx.docs.core.runner.tests.snapshots.sources.output.OutputJsonifySource;
 import com.dtsx.docs.core.runner.tests.snapshots.verifier.SnapshotVerifier;
+import com.dtsx.docs.core.runner.tests.snapshots.verifier.VerificationCache;
 import com.dtsx.docs.core.runner.tests.strategies.execution.ExecutionStrategy;
 import com.dtsx.docs.core.runner.tests.strategies.execution.ExecutionStrategy.TestResetter;
 import com.dtsx.docs.lib.CliLogger;
@@ -22,8 +24,10 @@ import lombok.Getter;
 import lombok.val;
 
 import java.nio.file.Path;
-import java.util.Optional;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.stream.Collectors.toMap;
 
 @Getter
 public final class SnapshotTestStrategy extends TestStrategy<SnapshotTestMeta> {
@@ -36,33 +40,68 @@ public final class SnapshotTestStrategy extends TestStrategy<SnapshotTestMeta> {
         return meta.executionMode().slicePool(testRoot, pool);
     }
 
+    @Override
+    public boolean fullyCached(TestRoot testRoot) {
+        val cache = new VerificationCache(ctx);
+
+        return cache.enabled() && testRoot.filesToTest().entrySet().stream().allMatch((e) -> {
+            return cache.key(ctx.drivers().get(e.getKey()), testRoot, meta, e.getValue()).filter(cache::hasPassed).isPresent();
+        });
+    }
+
     @Override
     public TestRootResults runTestsInRoot(ExternalProgram tsx, TestRoot testRoot, ExecutionEnvironments execEnvs, BaseFixturePool pool) {
         return new Runner(tsx, testRoot, execEnvs, pool).runTestsInRoot();
     }
 
+    @TestFileModifierFlags
+    int testFileModifiers() {
+        return (meta.snapshotSources().stream().anyMatch(OutputJsonifySource.class::isInstance))
+            ? TestFileModifiers.JSONIFY_OUTPUT
+            : TestFileModifiers.NONE;
+    }
+
     public class Runner {
         private final TestRoot testRoot;
         private final ExecutionEnvironments execEnvs;
         private final BaseFixturePool pool;
         private final SnapshotVerifier verifier;
+        private final VerificationCache cache;
         private final ExecutionStrategy executionStrategy;
 
         public Runner(ExternalProgram tsx, TestRoot testRoot, ExecutionEnvironments execEnvs, BaseFixturePool pool) {
             this.testRoot = testRoot;
             this.execEnvs = execEnvs;
             this.pool = pool;
-            this.verifier = new SnapshotVerifier(ctx, meta.snapshotSources(), meta.shareConfig());
+            this.verifier = new SnapshotVerifier(ctx, meta.snapshotSources(), meta.shareConfig(), meta.scrubber());
+            this.cache = new VerificationCache(ctx);
             this.executionStrategy = meta.executionMode().createStrategy(tsx, meta.testFixture(), pool, testRoot);
         }
 
         public TestRootResults runTestsInRoot() {
+            val outcomes = new HashMap<ClientLanguage, Map<Path, TestOutcome>>();
+            val uncached = new TreeMap<ClientLanguage, Set<Path>>();
+
+            testRoot.filesToTest().forEach((lang, files) -> {
+                val cachedPass = cache.key(ctx.drivers().get(lang), testRoot, meta, files).filter(cache::hasPassed);
+
+                if (cachedPass.isPresent()) {
+                    outcomes.put(lang, files.stream().collect(toMap(p -> p, _ -> TestOutcome.CachedPassed.INSTANCE)));
+                } else {
+                    uncached.put(lang, files);
+                }
+            });
+
+            if (uncached.isEmpty()) {
+                return new TestRootResults(testRoot, outcomes);
+            }
+
             return CliLogger.loading(mkLoadingMsg(), (msgUpdater) -> {
-                val outcomes = executionStrategy.execute(
-                    testRoot.filesToTest(),
+                outcomes.putAll(executionStrategy.execute(
+                    uncached,
                     msgUpdater,
                     this::run
-                );
+                ));
                 return new TestRootResults(testRoot, outcomes);
             });
         }
@@ -82,21 +121,37 @@ public final class SnapshotTestStrategy extends TestStrategy<SnapshotTestMeta> {
 
         private TestOutcome run(ClientLanguage language, Set<Path> filesForLang, FixtureMetadata md, TestResetter resetter, MessageUpdater msgUpdater) {
             val driver = ctx.drivers().get(language);
-            val execEnv = execEnvs.forLanguage(language);
 
             val envVars = PlaceholderResolver.mkEnvVars(ctx, md, Optional.of(language));
 
-            return verifier.verify(driver, testRoot, md, filesForLang, resetter, (path) -> {
+            val startTime = System.currentTimeMillis();
+            val waited = new LongAdder(); // for environments; shouldn't count towards the root's own duration
+
+            val outcome = verifier.verify(driver, testRoot, md, filesForLang, resetter, (path) -> {
                 msgUpdater.update(_ -> "Verifying @!%s!@".formatted(testRoot.displayPath(path)));
 
-                val testFileModifiers = (meta.snapshotSources().stream().anyMatch(OutputJsonifySource.class::isInstance))
-                    ? TestFileModifiers.JSONIFY_OUTPUT
-                    : TestFileModifiers.NONE;
+                val acquireStart = System.currentTimeMillis();
+                val execEnv = execEnvs.acquire(language);
+                waited.add(System.currentTimeMillis() - acquireStart);
 
-                return execEnv.withTestFileCopied(driver, path, md, testFileModifiers, () -> {
-                    return driver.executeScript(ctx, execEnv, envVars);
-                });
+                try {
+                    return execEnv.withTestFileCopied(driver, path, md, testFileModifiers(), () -> {
+                        return driver.executeScript(ctx, execEnv, envVars);
+                    });
+                } finally {
+                    execEnvs.release(execEnv);
+                }
             });
+
+            ctx.durationHistory().record(testRoot, language, System.currentTimeMillis() - startTime - waited.sum());
+
+            if (outcome == TestOutcome.Passed.INSTANCE) {
+                cache.key(driver, testRoot, meta, filesForLang).ifPresent((key) -> {
+                    cache.recordPass(key, testRoot, driver);
+                });
+            }
+
+            return outcome;
         }
     }
 }
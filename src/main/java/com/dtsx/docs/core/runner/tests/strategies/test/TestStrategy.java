@@ -19,5 +19,11 @@ public sealed abstract class TestStrategy<M extends BaseMetaYml> permits Compile
     }
 
     public abstract BaseFixturePool slicePool(TestRoot testRoot, BaseFixturePool pool);
+
+    /// Whether every test in the root can be answered without running anything (and hence without its base fixture).
+    public boolean fullyCached(TestRoot testRoot) {
+        return false;
+    }
+
     public abstract TestRootResults runTestsInRoot(ExternalProgram tsx, TestRoot testRoot, ExecutionEnvironments execEnvs, BaseFixturePool pool);
 }
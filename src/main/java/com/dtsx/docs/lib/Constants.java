@@ -2,6 +2,7 @@ package com.dtsx.docs.lib;
 
 public class Constants {
     public static final String FIXTURES_DIR = "_fixtures";
+    public static final String BASE_DIR = "_base";
     public static final String META_FILE = "meta.yml";
     public static final String DEFAULT_TEST_FIXTURE = "fixture.js";
 }
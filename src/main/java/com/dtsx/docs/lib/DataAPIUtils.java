@@ -1,6 +1,7 @@
 package com.dtsx.docs.lib;
 
 import com.datastax.astra.client.DataAPIClient;
+import com.datastax.astra.client.DataAPIDestination;
 import com.datastax.astra.client.collections.Collection;
 import com.datastax.astra.client.collections.definition.documents.Document;
 import com.datastax.astra.client.core.options.DataAPIClientOptions;
@@ -8,25 +9,63 @@ import com.datastax.astra.client.databases.Database;
 import com.datastax.astra.client.tables.Table;
 import com.datastax.astra.client.tables.definition.rows.Row;
 import com.dtsx.docs.config.ConnectionInfo;
+import lombok.val;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/// Hands out Data API handles backed by a shared cache of clients and databases.
+///
+/// Snapshot sources fetch a collection, table, or database for nearly every snapshot, so building a fresh
+/// [DataAPIClient] each time would mean new HTTP clients (and TLS handshakes) per snapshot. Instead, one client is kept
+/// per connection, and one [Database] per connection + keyspace, so that their HTTP connections are reused.
+///
+/// Both caches are bounded (least recently used entries are evicted) and thread-safe, and are emptied by [#clearCache()]
+/// once a run is over.
 public class DataAPIUtils {
+    private static final int MAX_CLIENTS = 4;
+    private static final int MAX_DATABASES = 16;
+
+    private record ClientKey(String token, String endpoint, DataAPIDestination destination) {}
+    private record DatabaseKey(ClientKey client, String keyspace) {}
+
+    private static final Map<ClientKey, DataAPIClient> clients = lruMap(MAX_CLIENTS);
+    private static final Map<DatabaseKey, Database> databases = lruMap(MAX_DATABASES);
+
     public static Collection<Document> getCollection(ConnectionInfo info, String name, String keyspace) {
-        return mkDb(info, keyspace).getCollection(name);
+        return getDatabase(info, keyspace).getCollection(name);
     }
 
     public static Table<Row> getTable(ConnectionInfo info, String name, String keyspace) {
-        return mkDb(info, keyspace).getTable(name);
+        return getDatabase(info, keyspace).getTable(name);
+    }
+
+    public static synchronized Database getDatabase(ConnectionInfo info, String keyspace) {
+        val clientKey = new ClientKey(info.token(), info.endpoint(), info.destination());
+
+        return databases.computeIfAbsent(new DatabaseKey(clientKey, keyspace), _ -> {
+            return getClient(clientKey).getDatabase(info.endpoint(), keyspace);
+        });
     }
 
-    public static Database getDatabase(ConnectionInfo info, String keyspace) {
-        return mkDb(info, keyspace);
+    /// Drops every cached client and database, e.g. when the test run is over.
+    public static synchronized void clearCache() {
+        databases.clear();
+        clients.clear();
     }
 
-    private static DataAPIClient mkClient(ConnectionInfo info) {
-        return new DataAPIClient(info.token(), new DataAPIClientOptions().destination(info.destination()));
+    private static DataAPIClient getClient(ClientKey key) {
+        return clients.computeIfAbsent(key, _ -> {
+            return new DataAPIClient(key.token(), new DataAPIClientOptions().destination(key.destination()));
+        });
     }
 
-    private static Database mkDb(ConnectionInfo info, String keyspace) {
-        return mkClient(info).getDatabase(info.endpoint(), keyspace);
+    private static <K, V> Map<K, V> lruMap(int maxSize) {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > maxSize;
+            }
+        };
     }
 }
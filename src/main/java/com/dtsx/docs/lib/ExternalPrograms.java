@@ -41,6 +41,13 @@ public class ExternalPrograms {
         return get(NPM, ctx);
     }
 
+    /// Returns a node executor (default: `node`).
+    ///
+    /// Used to run the warm TypeScript workers.
+    public static ExternalProgram node(BaseCtx ctx) {
+        return get(NODE, ctx);
+    }
+
     /// Returns a bash executor (default: `bash`).
     ///
     /// Used to run bash example scripts.
@@ -76,6 +83,13 @@ public class ExternalPrograms {
         return get(JQ, ctx);
     }
 
+    /// Returns a git executor (default: `git`).
+    ///
+    /// Used to find changed files for `test --since <ref>`.
+    public static ExternalProgram git(BaseCtx ctx) {
+        return get(GIT, ctx);
+    }
+
     /// Returns a custom executor with no default command.
     ///
     /// Useful for calling definitely-available scripts (such as `./.gradlew`)
@@ -94,11 +108,13 @@ public class ExternalPrograms {
     public enum ExternalProgramType {
         TSX("npx -y tsx"),
         NPM("npm"),
+        NODE("node"),
         BASH("bash"),
         PYTHON("python3"),
         JAVA("java"),
         DOTNET("dotnet"),
-        JQ("jq");
+        JQ("jq"),
+        GIT("git");
 
         private final String defaultCommand;
 
@@ -225,6 +241,18 @@ public class ExternalPrograms {
             }
         }
 
+        /// Starts the program without waiting for it to finish, for long-lived processes which are talked to over stdin/stdout.
+        ///
+        /// The caller owns the returned process and is responsible for draining its output and eventually destroying it.
+        ///
+        /// @param workingDir the working directory (null for current directory)
+        /// @param envVars additional environment variables to set (null for none)
+        /// @param args command-line arguments to pass to the program
+        /// @return the started process
+        public Process start(@Nullable Path workingDir, @Nullable Map<String, String> envVars, String... args) throws IOException {
+            return startProcess(workingDir, ArrayUtils.addAll(cmd, args), envVars);
+        }
+
         /// Checks if the program exists and is executable by running `<program> --version`.
         ///
         /// @return true if the program executed successfully, false otherwise
@@ -10,6 +10,7 @@ import tools.jackson.core.type.TypeReference;
 import tools.jackson.core.util.DefaultIndenter;
 import tools.jackson.core.util.DefaultPrettyPrinter;
 import tools.jackson.databind.DeserializationFeature;
+import tools.jackson.databind.JsonNode;
 import tools.jackson.databind.MapperFeature;
 import tools.jackson.databind.SerializationFeature;
 import tools.jackson.databind.json.JsonMapper;
@@ -18,7 +19,6 @@ import tools.jackson.dataformat.yaml.YAMLMapper;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 
 @UtilityClass
@@ -62,6 +62,24 @@ public class JacksonUtils {
         }
     }
 
+    /// Parses exactly one JSON value, failing on empty input or anything trailing it (e.g. `{"a":1} {"a":2}`).
+    ///
+    /// Floating point numbers are kept as they're written, rather than being rounded to doubles.
+    public static JsonNode parseSingleJsonValue(String string) {
+        if (string.isBlank()) {
+            throw new RunException("Failed to parse JSON: expected a single value, but got empty input");
+        }
+
+        try {
+            return JSON.readerFor(JsonNode.class)
+                .with(DeserializationFeature.FAIL_ON_TRAILING_TOKENS)
+                .with(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS)
+                .readValue(string);
+        } catch (Exception e) {
+            throw new RunException("Failed to parse JSON as a single value: " + e.getMessage() + "\nJSON:\n" + string, e);
+        }
+    }
+
     public static <T> List<T> parseJsonLines(String string, Class<T> clazz) {
         val res = new ArrayList<T>();
 
@@ -110,14 +128,6 @@ public class JacksonUtils {
 
     // TODO probably move this somewhere else
     public static String runJq(BaseScriptRunnerCtx ctx, String json, String filter) {
-        val args = new String[] { "-n", "--argjson", "input", json, "$input | " + filter };
-
-        val res = ExternalPrograms.jq(ctx).run(args);
-
-        if (res.exitCode() != 0) {
-            throw new RunException("Failed to run jq with args " + Arrays.toString(args) + "\n: " + res.output());
-        }
-
-        return res.output();
+        return JqFilters.apply(ctx, json, filter);
     }
 }
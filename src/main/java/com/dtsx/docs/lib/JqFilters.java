@@ -0,0 +1,214 @@
+package com.dtsx.docs.lib;
+
+import com.dtsx.docs.config.ctx.BaseScriptRunnerCtx;
+import com.dtsx.docs.core.runner.RunException;
+import lombok.val;
+
+import java.io.*;
+import java.util.*;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/// Applies jq filters through long-lived `jq` processes, one per distinct filter.
+///
+/// Each process is started with its filter compiled once, and then fed one request per line over stdin, each holding
+/// a single JSON document (validated and re-serialized compactly beforehand) along with an id:
+/// ```
+/// jq --unbuffered -c '. as $req | try { id: $req.id, ok: [$req.input | <filter>] } catch { id: $req.id, error: . }'
+/// -> {"id":1,"input":{"name":"a","age":1}}
+/// <- {"id":1,"ok":[{"name":"a"}]}
+/// ```
+///
+/// Wrapping the filter like this guarantees exactly one line of output per request, even if the filter produces zero
+/// or several values, or fails; a response with the wrong id means the process got out of step, so it's killed. It
+/// also avoids passing the document through argv, which breaks once it exceeds the OS's argument length limit (e.g.
+/// with 1024-dim vectors).
+///
+/// Filters using `input`/`inputs` would read the next request, so each of their documents gets a process of its own,
+/// which is closed right after (making them fail with `No more inputs`, just like `jq -n` would).
+///
+/// Idle processes are closed once there are more than [#MAX_PROCESSES] of them.
+public final class JqFilters {
+    private static final int MAX_PROCESSES = 16;
+
+    /// Matches `input`/`inputs` builtin calls (but not `.input` or `$input`); false positives only cost a process.
+    private static final Pattern READS_INPUTS = Pattern.compile("(?<![.$\\w])inputs?\\b");
+
+    private static final LinkedHashMap<String, JqProcess> processes = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, JqProcess> eldest) {
+            if (size() > MAX_PROCESSES) {
+                eldest.getValue().close();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    /// Applies `filter` to `json`, exactly like `jq -n --argjson input <json> '$input | <filter>'` would.
+    ///
+    /// @param ctx the context, used to resolve the `jq` command
+    /// @param json a single JSON document
+    /// @param filter the jq filter
+    /// @return every value the filter produced, each on its own line
+    /// @throws RunException if `json` isn't exactly one JSON document, or if the filter doesn't compile or fails on it
+    public static String apply(BaseScriptRunnerCtx ctx, String json, String filter) {
+        val input = JacksonUtils.formatJsonCompact(JacksonUtils.parseSingleJsonValue(json));
+
+        if (READS_INPUTS.matcher(filter).find()) {
+            val process = JqProcess.start(ctx, filter);
+
+            try {
+                return process.apply(input, true).orElseThrow();
+            } finally {
+                process.close();
+            }
+        }
+
+        while (true) {
+            val result = getOrStart(ctx, filter).apply(input, false);
+
+            if (result.isPresent()) {
+                return result.get();
+            }
+            // the process was closed out from under us (e.g. evicted); just start a new one
+        }
+    }
+
+    /// Closes every jq process. Calls made after this will simply start new ones.
+    public static void closeAll() {
+        synchronized (processes) {
+            processes.values().forEach(JqProcess::close);
+            processes.clear();
+        }
+    }
+
+    private static JqProcess getOrStart(BaseScriptRunnerCtx ctx, String filter) {
+        synchronized (processes) {
+            val existing = processes.get(filter);
+
+            if (existing != null && existing.isAlive()) {
+                return existing;
+            }
+
+            val started = JqProcess.start(ctx, filter);
+            processes.put(filter, started);
+            return started;
+        }
+    }
+
+    private static final class JqProcess {
+        private final String filter;
+        private final Process process;
+        private final BufferedWriter stdin;
+        private final BufferedReader stdout;
+        private final Deque<String> recentStderr = new ArrayDeque<>();
+        private boolean closed = false; // guarded by `this`
+        private long nextId = 0; // guarded by `this`
+
+        private JqProcess(String filter, Process process) {
+            this.filter = filter;
+            this.process = process;
+            this.stdin = new BufferedWriter(new OutputStreamWriter(process.getOutputStream()));
+            this.stdout = new BufferedReader(new InputStreamReader(process.getInputStream()));
+
+            Thread.startVirtualThread(() -> {
+                try (val stderr = new BufferedReader(new InputStreamReader(process.getErrorStream()))) {
+                    stderr.lines().forEach((line) -> {
+                        synchronized (recentStderr) {
+                            recentStderr.addLast(line);
+
+                            if (recentStderr.size() > 20) {
+                                recentStderr.removeFirst();
+                            }
+                        }
+                    });
+                } catch (IOException _) {}
+            });
+        }
+
+        static JqProcess start(BaseScriptRunnerCtx ctx, String filter) {
+            val program = ". as $req | try { id: $req.id, ok: [$req.input | (" + filter + "\n)] } catch { id: $req.id, error: . }";
+
+            try {
+                return new JqProcess(filter, ExternalPrograms.jq(ctx).start(null, null, "--unbuffered", "-c", program));
+            } catch (IOException e) {
+                throw new RunException("Failed to start jq for filter '" + filter + "'", e);
+            }
+        }
+
+        boolean isAlive() {
+            return process.isAlive();
+        }
+
+        /// @param input a single, compactly formatted, JSON document
+        /// @param last whether to close stdin once the request is sent, so that the filter can't wait for more input
+        synchronized Optional<String> apply(String input, boolean last) {
+            if (closed) {
+                return Optional.empty();
+            }
+
+            val id = ++nextId;
+
+            try {
+                stdin.write("{\"id\":" + id + ",\"input\":" + input + "}");
+                stdin.newLine();
+                stdin.flush();
+
+                if (last) {
+                    stdin.close();
+                }
+
+                val line = stdout.readLine();
+
+                if (line != null) {
+                    val response = parseResponse(line, id);
+
+                    if (response.containsKey("error")) {
+                        throw new RunException("jq filter '" + filter + "' failed: " + response.get("error"));
+                    }
+
+                    return Optional.of(
+                        ((List<?>) response.get("ok")).stream()
+                            .map(JacksonUtils::formatJsonCompact)
+                            .collect(Collectors.joining("\n"))
+                    );
+                }
+            } catch (IOException _) {}
+
+            close();
+            throw new RunException("jq exited unexpectedly while applying filter '" + filter + "' (is the filter or input valid?):\n" + recentStderr());
+        }
+
+        private Map<?, ?> parseResponse(String line, long id) {
+            try {
+                val response = JacksonUtils.parseJson(line, Map.class);
+
+                if (response.get("id") instanceof Number responseId && responseId.longValue() == id) {
+                    return response;
+                }
+            } catch (RunException _) {}
+
+            close();
+            throw new RunException("jq got out of step while applying filter '" + filter + "' (expected the response to request " + id + ", but got: " + line + ")");
+        }
+
+        synchronized void close() {
+            if (!closed) {
+                closed = true;
+
+                try {
+                    stdin.close();
+                } catch (IOException _) {}
+
+                process.destroy();
+            }
+        }
+
+        private String recentStderr() {
+            synchronized (recentStderr) {
+                return String.join("\n", recentStderr);
+            }
+        }
+    }
+}